@@ -0,0 +1,99 @@
+package Benchmarks;
+
+//////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2001-2020 Aspose Pty Ltd. All Rights Reserved.
+//
+// This file is part of Aspose.Words. The source code in this file
+// is only intended as a supplement to the documentation, and is provided
+// "as is", without warranty of any kind, either expressed or implied.
+//////////////////////////////////////////////////////////////////////////
+
+import com.aspose.words.Document;
+import com.aspose.words.HtmlSaveOptions;
+import com.aspose.words.License;
+import com.aspose.words.SaveFormat;
+import com.aspose.words.SaveOptions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+/**
+ * Provides the documents of the ApiExamples tests to the benchmarks.
+ */
+public class BenchmarkBase {
+    /**
+     * Gets the path to the documents used by the code examples. Ends with a separator.
+     * By default this is the Data directory next to the benchmarks module, the same one
+     * ApiExampleBase.getMyDir() returns.
+     *
+     * @return directory with documents for testing
+     */
+    static String getMyDir() {
+        return G_MY_DIR;
+    }
+
+    /**
+     * Loads a document from the data directory.
+     */
+    static Document loadDocument(String fileName) throws Exception {
+        return new Document(getMyDir() + fileName);
+    }
+
+    /**
+     * Saves the document into memory and returns the bytes.
+     */
+    static byte[] saveToBytes(Document doc, int saveFormat) throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        doc.save(stream, createSaveOptions(saveFormat));
+        return stream.toByteArray();
+    }
+
+    /**
+     * Creates the options to save a document into a stream in the specified format.
+     * An HTML document cannot write its images to a separate folder when it is saved
+     * into a stream, so the images are embedded in the HTML as base64 instead.
+     */
+    static SaveOptions createSaveOptions(int saveFormat) {
+        if (saveFormat == SaveFormat.HTML) {
+            HtmlSaveOptions options = new HtmlSaveOptions(SaveFormat.HTML);
+            options.setExportImagesAsBase64(true);
+            return options;
+        }
+
+        return SaveOptions.createSaveOptions(saveFormat);
+    }
+
+    /**
+     * Loads a document from bytes held in memory, so disk access is not measured.
+     */
+    static Document loadFromBytes(byte[] bytes) throws Exception {
+        return new Document(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Sets the license used by the tests, if it exists. Without it documents are rendered
+     * with an evaluation watermark, which also affects the timings.
+     */
+    static void setUnlimitedLicense() throws Exception {
+        String testLicenseFileName = G_LICENSE_DIR + "Aspose.Words.Java.lic";
+        if (new File(testLicenseFileName).exists()) {
+            License license = new License();
+            license.setLicense(testLicenseFileName);
+        }
+    }
+
+    private static final String G_MY_DIR;
+    private static final String G_LICENSE_DIR;
+
+    static {
+        String dataDir = System.getProperty("apiexamples.dataDir");
+        if (dataDir == null) {
+            String codeBaseDir = new File(System.getProperty("user.dir")).getParentFile() + File.separator;
+            dataDir = codeBaseDir + "Data";
+        }
+
+        G_MY_DIR = new File(dataDir).getAbsolutePath() + File.separator;
+        G_LICENSE_DIR = G_MY_DIR + "License" + File.separator;
+    }
+}
@@ -0,0 +1,44 @@
+package Benchmarks;
+
+//////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2001-2020 Aspose Pty Ltd. All Rights Reserved.
+//
+// This file is part of Aspose.Words. The source code in this file
+// is only intended as a supplement to the documentation, and is provided
+// "as is", without warranty of any kind, either expressed or implied.
+//////////////////////////////////////////////////////////////////////////
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Runs the benchmarks in throughput mode with the GC profiler and writes the results
+ * as JSON, so the results of different runs can be compared.
+ * <p>
+ * The first argument, if it does not start with a dash, is a label added to the name of
+ * the result file, e.g. the version of Aspose.Words. The other arguments are passed to JMH.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        String resultFile = "target/jmh-result.json";
+        if (args.length > 0 && !args[0].startsWith("-")) {
+            resultFile = "target/jmh-result-" + args[0] + ".json";
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+
+        new Runner(options).run();
+    }
+}
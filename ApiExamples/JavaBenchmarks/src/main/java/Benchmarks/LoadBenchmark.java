@@ -0,0 +1,80 @@
+package Benchmarks;
+
+//////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2001-2020 Aspose Pty Ltd. All Rights Reserved.
+//
+// This file is part of Aspose.Words. The source code in this file
+// is only intended as a supplement to the documentation, and is provided
+// "as is", without warranty of any kind, either expressed or implied.
+//////////////////////////////////////////////////////////////////////////
+
+import com.aspose.words.Document;
+import com.aspose.words.SaveFormat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading documents in each load format. The same source document is saved
+ * once in every format, so the results of the formats can be compared with each other.
+ * Documents are loaded from memory, so disk access is not measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class LoadBenchmark extends BenchmarkBase {
+    @Param({"DOC", "DOCX", "DOCM", "DOTX", "FLAT_OPC", "RTF", "WORD_ML", "ODT", "HTML", "MHTML", "TEXT"})
+    public String format;
+
+    @Param({"Rendering.docx"})
+    public String sourceDocument;
+
+    private byte[] mDocumentBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        setUnlimitedLicense();
+        Document doc = loadDocument(sourceDocument);
+        mDocumentBytes = saveToBytes(doc, getSaveFormat(format));
+    }
+
+    @Benchmark
+    public Document load() throws Exception {
+        return loadFromBytes(mDocumentBytes);
+    }
+
+    /**
+     * Returns the save format which produces a document in the load format of the same name.
+     */
+    static int getSaveFormat(String format) {
+        switch (format) {
+            case "DOC":
+                return SaveFormat.DOC;
+            case "DOCX":
+                return SaveFormat.DOCX;
+            case "DOCM":
+                return SaveFormat.DOCM;
+            case "DOTX":
+                return SaveFormat.DOTX;
+            case "FLAT_OPC":
+                return SaveFormat.FLAT_OPC;
+            case "RTF":
+                return SaveFormat.RTF;
+            case "WORD_ML":
+                return SaveFormat.WORD_ML;
+            case "ODT":
+                return SaveFormat.ODT;
+            case "HTML":
+                return SaveFormat.HTML;
+            case "MHTML":
+                return SaveFormat.MHTML;
+            case "TEXT":
+                return SaveFormat.TEXT;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package Benchmarks;
+
+//////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2001-2020 Aspose Pty Ltd. All Rights Reserved.
+//
+// This file is part of Aspose.Words. The source code in this file
+// is only intended as a supplement to the documentation, and is provided
+// "as is", without warranty of any kind, either expressed or implied.
+//////////////////////////////////////////////////////////////////////////
+
+import com.aspose.words.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a simple mail merge. Mail merge replaces the fields of the template, so every
+ * invocation merges into a fresh copy of it. The cost of the copy alone is measured by
+ * cloneTemplate and can be subtracted from executeMailMerge.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class MailMergeBenchmark extends BenchmarkBase {
+    private static final String[] FIELD_NAMES = {"FullName", "Company", "Address", "Address2", "City"};
+    private static final Object[] FIELD_VALUES = {"James Bond", "MI5 Headquarters", "Milbank", "", "London"};
+
+    private Document mTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        setUnlimitedLicense();
+        mTemplate = loadDocument("MailMerge.ExecuteArray.doc");
+    }
+
+    @Benchmark
+    public Document cloneTemplate() {
+        return (Document) mTemplate.deepClone(true);
+    }
+
+    @Benchmark
+    public Document executeMailMerge() throws Exception {
+        Document doc = (Document) mTemplate.deepClone(true);
+        doc.getMailMerge().execute(FIELD_NAMES, FIELD_VALUES);
+        return doc;
+    }
+}
@@ -0,0 +1,43 @@
+package Benchmarks;
+
+//////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2001-2020 Aspose Pty Ltd. All Rights Reserved.
+//
+// This file is part of Aspose.Words. The source code in this file
+// is only intended as a supplement to the documentation, and is provided
+// "as is", without warranty of any kind, either expressed or implied.
+//////////////////////////////////////////////////////////////////////////
+
+import com.aspose.words.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the page layout of a document. updatePageLayout rebuilds the whole
+ * layout in every invocation, even if the document did not change.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class PageLayoutBenchmark extends BenchmarkBase {
+    @Param({"Rendering.docx", "Document.docx"})
+    public String sourceDocument;
+
+    private Document mDocument;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        setUnlimitedLicense();
+        mDocument = loadDocument(sourceDocument);
+    }
+
+    @Benchmark
+    public int updatePageLayout() throws Exception {
+        mDocument.updatePageLayout();
+        return mDocument.getPageCount();
+    }
+}
@@ -0,0 +1,74 @@
+package Benchmarks;
+
+//////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2001-2020 Aspose Pty Ltd. All Rights Reserved.
+//
+// This file is part of Aspose.Words. The source code in this file
+// is only intended as a supplement to the documentation, and is provided
+// "as is", without warranty of any kind, either expressed or implied.
+//////////////////////////////////////////////////////////////////////////
+
+import com.aspose.words.Document;
+import com.aspose.words.SaveFormat;
+import com.aspose.words.SaveOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving documents to PDF, DOCX, HTML and TIFF, into memory.
+ * <p>
+ * The page layout of the document is built by the first save to a fixed page format and
+ * then reused, so the PDF and TIFF results measure rendering only. PageLayoutBenchmark
+ * measures building the layout. HTML is saved with the images embedded as base64, because
+ * the images of an HTML document saved into a stream cannot be written to a folder.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveBenchmark extends BenchmarkBase {
+    @Param({"PDF", "DOCX", "HTML", "TIFF"})
+    public String format;
+
+    @Param({"Rendering.docx", "Document.docx"})
+    public String sourceDocument;
+
+    private Document mDocument;
+    private SaveOptions mSaveOptions;
+    private ByteArrayOutputStream mStream;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        setUnlimitedLicense();
+        mDocument = loadDocument(sourceDocument);
+        mSaveOptions = createSaveOptions(getSaveFormat(format));
+        mStream = new ByteArrayOutputStream();
+    }
+
+    @Benchmark
+    public int save() throws Exception {
+        // Reuse the buffer, so growing it is not part of the measured allocations.
+        mStream.reset();
+        mDocument.save(mStream, mSaveOptions);
+        return mStream.size();
+    }
+
+    private static int getSaveFormat(String format) {
+        switch (format) {
+            case "PDF":
+                return SaveFormat.PDF;
+            case "DOCX":
+                return SaveFormat.DOCX;
+            case "HTML":
+                return SaveFormat.HTML;
+            case "TIFF":
+                return SaveFormat.TIFF;
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package Benchmarks;
+
+//////////////////////////////////////////////////////////////////////////
+// Copyright (c) 2001-2020 Aspose Pty Ltd. All Rights Reserved.
+//
+// This file is part of Aspose.Words. The source code in this file
+// is only intended as a supplement to the documentation, and is provided
+// "as is", without warranty of any kind, either expressed or implied.
+//////////////////////////////////////////////////////////////////////////
+
+import com.aspose.words.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures updating all fields of a document. Updating the fields again gives the same
+ * result, so the same document is updated in every invocation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class UpdateFieldsBenchmark extends BenchmarkBase {
+    @Param({"Various fields.docx", "Field TOC.docx", "Nested fields.docx"})
+    public String sourceDocument;
+
+    private Document mDocument;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        setUnlimitedLicense();
+        mDocument = loadDocument(sourceDocument);
+    }
+
+    @Benchmark
+    public Document updateFields() throws Exception {
+        mDocument.updateFields();
+        return mDocument;
+    }
+}
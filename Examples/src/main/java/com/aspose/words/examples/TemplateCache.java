@@ -0,0 +1,202 @@
+package com.aspose.words.examples;
+
+import com.aspose.words.Document;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of parsed template documents for examples which merge or build reports from the
+ * same template many times. Each template is loaded from disk once and every caller gets
+ * its own deepClone(true) copy of it, so the copies can be modified and used on different
+ * threads.
+ * <p>
+ * A cached template is reused while the modification time and size of its file do not
+ * change. When they do, the content hash decides whether the template is loaded again, so
+ * touching a file without changing it does not cost a reload.
+ * <p>
+ * The cache is bounded by the total size of the template files, which grows with the
+ * memory of the parsed documents. The least recently used templates are evicted first.
+ */
+public class TemplateCache {
+
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final TemplateCache DEFAULT = new TemplateCache(DEFAULT_MAX_BYTES);
+
+    /**
+     * Returns the cache shared by the examples.
+     */
+    public static TemplateCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes The maximum total size of the cached template files.
+     */
+    public TemplateCache(long maxBytes) {
+        mMaxBytes = maxBytes;
+    }
+
+    /**
+     * Returns a copy of the template document loaded from the file.
+     */
+    public Document getDocument(String fileName) throws Exception {
+        File file = new File(fileName).getCanonicalFile();
+        String key = file.getPath();
+        long lastModified = file.lastModified();
+        long length = file.length();
+
+        Template template;
+        synchronized (mTemplates) {
+            template = mTemplates.get(key);
+        }
+
+        if (template != null && (template.mLastModified != lastModified || template.mLength != length)) {
+            // The file was written again, check whether its content changed.
+            if (Arrays.equals(template.mContentHash, hashFile(file))) {
+                template = template.withFileInfo(lastModified, length);
+                put(key, template);
+            } else {
+                template = null;
+            }
+        }
+
+        if (template != null) {
+            mHits.incrementAndGet();
+        } else {
+            mMisses.incrementAndGet();
+            byte[] contentHash = hashFile(file);
+            template = new Template(new Document(key), lastModified, length, contentHash);
+            put(key, template);
+        }
+
+        return template.createCopy();
+    }
+
+    /**
+     * Removes the template from the cache, so it is loaded again on the next request.
+     */
+    public void invalidate(String fileName) throws Exception {
+        String key = new File(fileName).getCanonicalPath();
+        synchronized (mTemplates) {
+            Template template = mTemplates.remove(key);
+            if (template != null) {
+                mSize -= template.mLength;
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (mTemplates) {
+            mTemplates.clear();
+            mSize = 0;
+        }
+    }
+
+    private void put(String key, Template template) {
+        synchronized (mTemplates) {
+            Template oldTemplate = mTemplates.put(key, template);
+            if (oldTemplate != null) {
+                mSize -= oldTemplate.mLength;
+            }
+            mSize += template.mLength;
+
+            // Evict the least recently used templates, but always keep the one just added.
+            Iterator<Map.Entry<String, Template>> iterator = mTemplates.entrySet().iterator();
+            while (mSize > mMaxBytes && mTemplates.size() > 1) {
+                Template evicted = iterator.next().getValue();
+                iterator.remove();
+                mSize -= evicted.mLength;
+                mEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static byte[] hashFile(File file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        InputStream stream = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = stream.read(buffer)) != -1)
+                digest.update(buffer, 0, bytesRead);
+        } finally {
+            stream.close();
+        }
+
+        return digest.digest();
+    }
+
+    public long getHitCount() {
+        return mHits.get();
+    }
+
+    public long getMissCount() {
+        return mMisses.get();
+    }
+
+    public long getEvictionCount() {
+        return mEvictions.get();
+    }
+
+    public int getTemplateCount() {
+        synchronized (mTemplates) {
+            return mTemplates.size();
+        }
+    }
+
+    public void printStatistics() {
+        long hits = mHits.get();
+        long requests = hits + mMisses.get();
+        System.out.println(String.format("Template cache: %d templates, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                getTemplateCount(), hits, mMisses.get(), requests > 0 ? hits * 100.0 / requests : 0, mEvictions.get()));
+    }
+
+    /**
+     * A parsed template and the state of its file when it was loaded.
+     */
+    private static class Template {
+        Template(Document master, long lastModified, long length, byte[] contentHash) {
+            mMaster = master;
+            mLastModified = lastModified;
+            mLength = length;
+            mContentHash = contentHash;
+        }
+
+        Template withFileInfo(long lastModified, long length) {
+            return new Template(mMaster, lastModified, length, mContentHash);
+        }
+
+        Document createCopy() {
+            // A Document is not thread-safe, so threads clone the shared master one at a time.
+            synchronized (mMaster) {
+                return (Document) mMaster.deepClone(true);
+            }
+        }
+
+        final Document mMaster;
+        final long mLastModified;
+        final long mLength;
+        final byte[] mContentHash;
+    }
+
+    /**
+     * Instance variables.
+     */
+    private final long mMaxBytes;
+    // Templates by canonical file name in least recently used order. Guarded by itself.
+    private final LinkedHashMap<String, Template> mTemplates = new LinkedHashMap<String, Template>(16, 0.75f, true);
+    private long mSize;
+    private final AtomicLong mHits = new AtomicLong();
+    private final AtomicLong mMisses = new AtomicLong();
+    private final AtomicLong mEvictions = new AtomicLong();
+}
@@ -2,6 +2,7 @@ package com.aspose.words.examples.linq;
 
 import com.aspose.words.Document;
 import com.aspose.words.ReportingEngine;
+import com.aspose.words.examples.TemplateCache;
 import com.aspose.words.examples.Utils;
 
 public class HelloWorld {
@@ -15,8 +16,8 @@ public class HelloWorld {
         String dataDir = Utils.getDataDir(HelloWorld.class);
 
         String fileName = "HelloWorld.doc";
-        // Load the template document.
-        Document doc = new Document(dataDir + fileName);
+        // Load the template document. The template is parsed once and every call gets its own copy.
+        Document doc = TemplateCache.getDefault().getDocument(dataDir + fileName);
 
         // Create an instance of sender class to set it's properties.
         Sender sender = new Sender();
@@ -0,0 +1,231 @@
+package com.aspose.words.examples.loading_saving;
+
+import com.aspose.words.FileFormatInfo;
+import com.aspose.words.FileFormatUtil;
+import com.aspose.words.LoadFormat;
+import com.aspose.words.examples.Utils;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//ExStart:FormatTriage
+
+/**
+ * Sorts a large drop of files into folders by document format, the same way as
+ * CheckFormatCompatibility, but for hundreds of thousands of files:
+ * <p>
+ * 1. The source directory is walked recursively with NIO on the calling thread.
+ * 2. The format and encryption of every file is detected on a pool of worker threads.
+ * 3. Files are hard linked, moved or copied by the file system instead of through a byte buffer.
+ * <p>
+ * Files keep their path relative to the source directory, so files with the same name
+ * in different folders do not overwrite each other. A summary with the number of files
+ * and bytes per format and the throughput is printed at the end.
+ */
+public class FormatTriage {
+
+    /**
+     * How files are placed into the target folders.
+     */
+    public enum Transfer {
+        /** Creates a hard link, or copies the file when the target is on another file system. */
+        LINK,
+        /** Moves the file, which is a rename on the same file system. */
+        MOVE,
+        /** Copies the file. */
+        COPY
+    }
+
+    public static void main(String[] args) throws Exception {
+        // The path to the documents directory.
+        String dataDir = Utils.getDataDir(CheckFormatCompatibility.class);
+
+        FormatTriage triage = new FormatTriage(Transfer.LINK, Runtime.getRuntime().availableProcessors());
+        triage.run(Paths.get(dataDir), Paths.get(dataDir, "OutTriage"));
+        triage.printSummary();
+    }
+
+    public FormatTriage(Transfer transfer, int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("threadCount must be positive");
+        }
+
+        mTransfer = transfer;
+        mThreadCount = threadCount;
+    }
+
+    /**
+     * Sorts every file under sourceDir into the Supported, Unknown, Encrypted and Pre97
+     * folders of targetDir. The target directory is skipped if it is inside the source directory.
+     */
+    public void run(final Path sourceDir, final Path targetDir) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(mThreadCount);
+        // Limits the number of files waiting for a worker, so walking a huge tree does not queue every path.
+        final Semaphore pendingFiles = new Semaphore(mThreadCount * 16);
+        long start = System.nanoTime();
+
+        try {
+            Files.walkFileTree(sourceDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return dir.equals(targetDir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                    if (!attrs.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    try {
+                        pendingFiles.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return FileVisitResult.TERMINATE;
+                    }
+
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            try {
+                                triageFile(file, attrs.size(), sourceDir.relativize(file), targetDir);
+                            } finally {
+                                pendingFiles.release();
+                            }
+                        }
+                    });
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    System.out.println(file + "\tCannot be read: " + e.getMessage());
+                    mFailedFiles.incrementAndGet();
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            mElapsedNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Detects the format of one file and places it into the matching folder. Runs on a worker thread.
+     */
+    private void triageFile(Path file, long size, Path relativePath, Path targetDir) {
+        try {
+            FileFormatInfo info = FileFormatUtil.detectFileFormat(file.toString());
+
+            String folder;
+            String format;
+            if (info.isEncrypted()) {
+                folder = "OutEncrypted";
+                format = "Encrypted";
+            } else {
+                switch (info.getLoadFormat()) {
+                    case LoadFormat.DOC_PRE_WORD_60:
+                        folder = "OutPre97";
+                        break;
+                    case LoadFormat.UNKNOWN:
+                        folder = "OutUnknown";
+                        break;
+                    default:
+                        folder = "OutSupported";
+                        break;
+                }
+                format = LoadFormat.getName(info.getLoadFormat());
+            }
+
+            // Keep the path relative to the source directory inside the format folder.
+            Path destination = targetDir.resolve(folder).resolve(relativePath);
+            transfer(file, destination);
+
+            getCounter(mFileCounts, format).incrementAndGet();
+            getCounter(mByteCounts, format).addAndGet(size);
+            mTotalBytes.addAndGet(size);
+        } catch (Exception e) {
+            System.out.println(file + "\tFailed: " + e.getMessage());
+            mFailedFiles.incrementAndGet();
+        }
+    }
+
+    private void transfer(Path source, Path destination) throws IOException {
+        Path directory = destination.getParent();
+        // The set saves the system calls for every further file of a folder.
+        if (!mCreatedDirectories.containsKey(directory)) {
+            Files.createDirectories(directory);
+            mCreatedDirectories.put(directory, Boolean.TRUE);
+        }
+
+        switch (mTransfer) {
+            case LINK:
+                try {
+                    Files.deleteIfExists(destination);
+                    Files.createLink(destination, source);
+                } catch (IOException | UnsupportedOperationException e) {
+                    // Hard links are not possible across file systems or on some file systems at all.
+                    Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+                }
+                break;
+            case MOVE:
+                Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+                break;
+            default:
+                Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+                break;
+        }
+    }
+
+    private static AtomicLong getCounter(ConcurrentHashMap<String, AtomicLong> counters, String key) {
+        AtomicLong counter = counters.get(key);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = counters.putIfAbsent(key, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+
+        return counter;
+    }
+
+    /**
+     * Prints the number of files and bytes per format and the overall throughput.
+     */
+    public void printSummary() {
+        long totalFiles = 0;
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<String, AtomicLong>(mFileCounts).entrySet()) {
+            long bytes = mByteCounts.get(entry.getKey()).get();
+            System.out.println(String.format("%-20s %10d files %12.1f MB", entry.getKey(), entry.getValue().get(), bytes / 1048576.0));
+            totalFiles += entry.getValue().get();
+        }
+
+        double seconds = mElapsedNanos / 1e9;
+        System.out.println(String.format("%d files (%d failed), %.1f MB in %.2f s: %.0f files/s, %.1f MB/s",
+                totalFiles, mFailedFiles.get(), mTotalBytes.get() / 1048576.0, seconds,
+                seconds > 0 ? totalFiles / seconds : 0, seconds > 0 ? mTotalBytes.get() / 1048576.0 / seconds : 0));
+    }
+
+    /**
+     * Instance variables.
+     */
+    private final Transfer mTransfer;
+    private final int mThreadCount;
+    private final ConcurrentHashMap<String, AtomicLong> mFileCounts = new ConcurrentHashMap<String, AtomicLong>();
+    private final ConcurrentHashMap<String, AtomicLong> mByteCounts = new ConcurrentHashMap<String, AtomicLong>();
+    private final ConcurrentHashMap<Path, Boolean> mCreatedDirectories = new ConcurrentHashMap<Path, Boolean>();
+    private final AtomicLong mTotalBytes = new AtomicLong();
+    private final AtomicLong mFailedFiles = new AtomicLong();
+    private volatile long mElapsedNanos;
+}
+//ExEnd:FormatTriage
@@ -4,6 +4,7 @@ import com.aspose.words.*;
 import com.aspose.words.examples.Utils;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import java.awt.image.BufferedImage;
@@ -21,6 +22,9 @@ public class LargeSizeImageToPdf {
         convertImageToPdf(dataDir + "Test.png", dataDir + "TestPng_out_.pdf");
         convertImageToPdf(dataDir + "Test.bmp", dataDir + "TestBmp_out_.pdf");
         convertImageToPdf(dataDir + "Test.gif", dataDir + "TestGif_out_.pdf");
+
+        // Decode images at the resolution needed for the page only, which keeps the memory use bounded for huge scans.
+        convertLargeImageToPdf(dataDir + "Test.jpg", dataDir + "TestJpgBounded_out_.pdf", 150);
         //ExEnd:LargeSizeImageToPdf
 
         System.out.println("Large size images converted to PDF successfully.");
@@ -105,15 +109,105 @@ public class LargeSizeImageToPdf {
     }
     //ExEnd:convertImageToPdf
 
+    //ExStart:convertLargeImageToPdf
+    /**
+     * Converts an image to PDF without decoding it at full resolution.
+     * The page size of each frame is calculated from the image dimensions in the reader metadata, then the frame
+     * is decoded with source subsampling so that it has only about as many pixels as the page needs at the specified
+     * resolution. Frames are read one at a time and released before the next frame is read, so multi-frame TIFF
+     * images are streamed frame by frame.
+     *
+     * @param inputFileName  File name of input image file.
+     * @param outputFileName Output PDF file name.
+     * @param resolution     Resolution of the images in the PDF, in pixels per inch.
+     */
+    public static void convertLargeImageToPdf(String inputFileName, String outputFileName, int resolution) throws Exception {
+        Document doc = new Document();
+        DocumentBuilder builder = new DocumentBuilder(doc);
+
+        ImageInputStream iis = ImageIO.createImageInputStream(new File(inputFileName));
+        ImageReader reader = ImageIO.getImageReaders(iis).next();
+
+        // Frames are read in order, so the reader may discard the data of previous frames.
+        reader.setInput(iis, true);
+
+        try {
+            // Do not scan the whole file to count frames, -1 means the count is not known yet.
+            int framesCount = reader.getNumImages(false);
+
+            for (int frameIdx = 0; framesCount < 0 || frameIdx < framesCount; frameIdx++) {
+                // Get the frame dimensions from the metadata without decoding the pixels.
+                int widthPixels;
+                int heightPixels;
+                try {
+                    widthPixels = reader.getWidth(frameIdx);
+                    heightPixels = reader.getHeight(frameIdx);
+                } catch (IndexOutOfBoundsException e) {
+                    // There are no more frames.
+                    break;
+                }
+
+                if (frameIdx != 0)
+                    builder.insertBreak(BreakType.SECTION_BREAK_NEW_PAGE);
+
+                // Max page size
+                double maxPageHeight = 1584;
+                double maxPageWidth = 1584;
+                double[] size = CalculateImageSize(widthPixels, heightPixels, maxPageHeight, maxPageWidth);
+
+                // Skip pixels which the page cannot show at the requested resolution.
+                int targetWidthPixels = (int) Math.ceil(ConvertUtil.pointToInch(size[0]) * resolution);
+                int targetHeightPixels = (int) Math.ceil(ConvertUtil.pointToInch(size[1]) * resolution);
+                int subsampling = Math.max(1, Math.min(widthPixels / Math.max(targetWidthPixels, 1), heightPixels / Math.max(targetHeightPixels, 1)));
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(frameIdx, param);
+
+                PageSetup ps = builder.getPageSetup();
+                ps.setPageWidth(size[0]);
+                ps.setPageHeight(size[1]);
+
+                builder.insertImage(
+                        image,
+                        RelativeHorizontalPosition.PAGE,
+                        0,
+                        RelativeVerticalPosition.PAGE,
+                        0,
+                        ps.getPageWidth(),
+                        ps.getPageHeight(),
+                        WrapType.NONE);
+
+                // The document stores the image encoded, so the decoded frame is not referenced after this
+                // iteration and can be garbage collected while the next frame is read.
+            }
+        } finally {
+            iis.close();
+            reader.dispose();
+        }
+
+        doc.save(outputFileName);
+    }
+    //ExEnd:convertLargeImageToPdf
+
     //ExStart:CalculateImageSize
     public static double[] CalculateImageSize(BufferedImage img, double containerHeight, double containerWidth, double targetHeight, double targetWidth) throws Exception {
 
-        targetHeight = containerHeight;
-        targetWidth = containerWidth;
+        return CalculateImageSize(img.getWidth(), img.getHeight(), containerHeight, containerWidth);
+    }
+
+    /**
+     * Calculates the size of an image in points which fits into the container, from the image size in pixels.
+     * This does not need the decoded image, so the size can be calculated from the image reader metadata.
+     */
+    public static double[] CalculateImageSize(int widthPixels, int heightPixels, double containerHeight, double containerWidth) throws Exception {
+
+        double targetHeight = containerHeight;
+        double targetWidth = containerWidth;
 
         //Get size of an image
-        double imgHeight = ConvertUtil.pixelToPoint(img.getHeight());
-        double imgWidth = ConvertUtil.pixelToPoint(img.getWidth());
+        double imgHeight = ConvertUtil.pixelToPoint(heightPixels);
+        double imgWidth = ConvertUtil.pixelToPoint(widthPixels);
 
         if (imgHeight < targetHeight && imgWidth < targetWidth) {
             targetHeight = imgHeight;
@@ -7,6 +7,7 @@ import java.io.File;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.*;
 
 public class PageSplitter {
     public static void main(String[] args) throws Exception {
@@ -17,7 +18,9 @@ public class PageSplitter {
         // The path to the documents directory.
         String dataDir = Utils.getDataDir(PageSplitter.class);
 
-        SplitAllDocumentsToPages(dataDir);
+        // Split the documents and save the pages on several threads. The output files are the same
+        // as those of the single-threaded SplitAllDocumentsToPages(dataDir).
+        SplitAllDocumentsToPages(dataDir, Runtime.getRuntime().availableProcessors());
         //ExEnd:PageSplitter
         System.out.println("\nDocument split to pages successfully.\nFile saved at " + dataDir + "\\Out");
     }
@@ -36,7 +39,8 @@ public class PageSplitter {
         DocumentPageSplitter splitter = new DocumentPageSplitter(doc);
 
         // Save each page to the disk as a separate document.
-        for (int page = 1; page <= doc.getPageCount(); page++) {
+        int pageCount = doc.getPageCount();
+        for (int page = 1; page <= pageCount; page++) {
             Document pageDoc = splitter.getDocumentOfPage(page);
             pageDoc.save(new File(outFolder, MessageFormat.format("{0} - page{1} Out{2}", fileName, page, extensionName)).getAbsolutePath());
         }
@@ -54,6 +58,119 @@ public class PageSplitter {
         }
     }
     //ExEnd:SplitAllDocumentsToPages
+
+    //ExStart:SplitDocumentToPagesParallel
+    /// <summary>
+    /// Splits a document to pages and saves the pages on the specified worker pool.
+    /// The page index is built once; page documents are extracted on the calling thread because a single
+    /// Document instance must not be accessed from several threads, and each extracted page is an independent
+    /// Document that is saved on the pool. At most maxPagesInFlight extracted pages are held in memory at a time.
+    /// Output file names depend only on the page number, so the result is the same as the serial version.
+    /// </summary>
+    public static void SplitDocumentToPages(File docName, ExecutorService pageExecutor, int maxPagesInFlight) throws Exception {
+        String folderName = docName.getParent();
+        final String fileName = docName.getName();
+        final String extensionName = fileName.substring(fileName.lastIndexOf("."));
+        final String outFolder = new File(folderName, "Out").getAbsolutePath();
+        System.out.println("Processing document: " + fileName);
+
+        Document doc = new Document(docName.getAbsolutePath());
+
+        // Split nodes in the document into separate pages and build the page index once.
+        DocumentPageSplitter splitter = new DocumentPageSplitter(doc);
+        int pageCount = doc.getPageCount();
+
+        final Semaphore pagesInFlight = new Semaphore(maxPagesInFlight);
+        List<Future<?>> results = new ArrayList<Future<?>>(pageCount);
+        try {
+            for (int page = 1; page <= pageCount; page++) {
+                // Wait for a free slot before extracting the next page, so a slow disk does not make us hold
+                // the whole document as separate page documents.
+                pagesInFlight.acquire();
+                final Document pageDoc;
+                try {
+                    pageDoc = splitter.getDocumentOfPage(page);
+                } catch (Exception e) {
+                    pagesInFlight.release();
+                    throw e;
+                }
+
+                final int pageNumber = page;
+                results.add(pageExecutor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        try {
+                            pageDoc.save(new File(outFolder, MessageFormat.format("{0} - page{1} Out{2}", fileName, pageNumber, extensionName)).getAbsolutePath());
+                            return null;
+                        } finally {
+                            pagesInFlight.release();
+                        }
+                    }
+                }));
+            }
+        } finally {
+            // Always wait for the pages which were already submitted, even if extraction failed.
+            waitForAll(results);
+        }
+    }
+    //ExEnd:SplitDocumentToPagesParallel
+
+    //ExStart:SplitAllDocumentsToPagesParallel
+    /// <summary>
+    /// Splits all documents in the folder using at most maxConcurrency threads for documents
+    /// and maxConcurrency threads for saving pages.
+    /// </summary>
+    public static void SplitAllDocumentsToPages(String folderName, int maxConcurrency) throws Exception {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("'maxConcurrency' must be positive");
+        }
+
+        File[] files = new File(folderName).listFiles();
+
+        // Documents and pages use separate pools. Document tasks block while waiting for their pages,
+        // so sharing one pool could leave no thread free to save a page.
+        final ExecutorService documentExecutor = Executors.newFixedThreadPool(maxConcurrency);
+        final ExecutorService pageExecutor = Executors.newFixedThreadPool(maxConcurrency);
+        final int maxPagesInFlight = maxConcurrency * 2;
+        try {
+            List<Future<?>> results = new ArrayList<Future<?>>();
+            for (final File file : files) {
+                if (file.isFile()) {
+                    results.add(documentExecutor.submit(new Callable<Void>() {
+                        public Void call() throws Exception {
+                            SplitDocumentToPages(file, pageExecutor, maxPagesInFlight);
+                            return null;
+                        }
+                    }));
+                }
+            }
+
+            waitForAll(results);
+        } finally {
+            documentExecutor.shutdown();
+            pageExecutor.shutdown();
+        }
+    }
+    //ExEnd:SplitAllDocumentsToPagesParallel
+
+    /// <summary>
+    /// Waits for every task to complete and rethrows the first failure.
+    /// </summary>
+    private static void waitForAll(List<Future<?>> results) throws Exception {
+        Exception firstError = null;
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                if (firstError == null) {
+                    firstError = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+
+        if (firstError != null) {
+            throw firstError;
+        }
+    }
 }
 
 //ExStart:DocumentPageSplitter
@@ -67,7 +184,19 @@ class DocumentPageSplitter {
     /// </summary>
     /// <param name="source">source document</param>
     public DocumentPageSplitter(Document source) throws Exception {
-        this.pageNumberFinder = PageNumberFinderFactory.create(source);
+        this(source, false);
+    }
+
+    /// <summary>
+    /// Initializes a new instance of the <see cref="DocumentPageSplitter"/> class.
+    /// </summary>
+    /// <param name="source">source document</param>
+    /// <param name="incrementalLayout">
+    /// True to skip the second layout pass when no paragraph had to be split.
+    /// See <see cref="PageNumberFinder.splitNodesAcrossPages(boolean)"/>.
+    /// </param>
+    public DocumentPageSplitter(Document source, boolean incrementalLayout) throws Exception {
+        this.pageNumberFinder = PageNumberFinderFactory.create(source, incrementalLayout);
     }
 
     /// <summary>
@@ -118,8 +247,8 @@ class PageNumberFinder {
     private Hashtable nodeEndPageLookup = new Hashtable();
     private LayoutCollector collector;
 
-    // Maps page number to a list of nodes found on that page.
-    private Hashtable reversePageLookup;
+    // Maps page number to the nodes found on that page.
+    private PageIndex reversePageLookup;
 
     /// <summary>
     /// Initializes a new instance of the <see cref="PageNumberFinder"/> class.
@@ -203,23 +332,7 @@ class PageNumberFinder {
         }
 
         this.checkPageListsPopulated();
-        ArrayList pageNodes = new ArrayList();
-        for (int page = startPage; page <= endPage; page++) {
-            // Some pages can be empty.
-            if (!this.reversePageLookup.containsKey(page)) {
-                continue;
-            }
-
-            for (Node node : (Iterable<Node>) this.reversePageLookup.get(page)) {
-                if (node.getParentNode() != null
-                        && (nodeType == NodeType.ANY || node.getNodeType() == nodeType)
-                        && !pageNodes.contains(node)) {
-                    pageNodes.add(node);
-                }
-            }
-        }
-
-        return pageNodes;
+        return this.reversePageLookup.retrieveNodes(startPage, endPage, nodeType);
     }
 
     /// <summary>
@@ -227,13 +340,33 @@ class PageNumberFinder {
     /// but no longer appear across a page.
     /// </summary>
     public void splitNodesAcrossPages() throws Exception {
+        this.splitNodesAcrossPages(false);
+    }
+
+    /// <summary>
+    /// Splits nodes which appear over two or more pages into separate nodes so that they still appear in the same way
+    /// but no longer appear across a page.
+    /// </summary>
+    /// <param name="incrementalLayout">
+    /// False to always rebuild the layout after runs are split by words.
+    /// True to keep the layout of the first pass when no paragraph spans a page, because then no run was split and
+    /// the layout still matches the document. When a paragraph spans a page, the new runs have no layout yet and
+    /// Aspose.Words can only lay out the whole document, so the layout is rebuilt just like in the default mode.
+    /// The gain is therefore limited to documents without paragraphs spanning pages, e.g. documents whose pages
+    /// end with page or section breaks.
+    /// </param>
+    public void splitNodesAcrossPages(boolean incrementalLayout) throws Exception {
+        boolean isAnyParagraphSplit = false;
         for (Paragraph paragraph : (Iterable<Paragraph>) this.getDocument().getChildNodes(NodeType.PARAGRAPH, true)) {
             if (this.getPage(paragraph) != this.getPageEnd(paragraph)) {
                 this.splitRunsByWords(paragraph);
+                isAnyParagraphSplit = true;
             }
         }
 
-        this.clearCollector();
+        if (!incrementalLayout || isAnyParagraphSplit) {
+            this.clearCollector();
+        }
 
         // Visit any composites which are possibly split across pages and split them into separate nodes.
         this.getDocument().accept(new SectionSplitter(this));
@@ -270,25 +403,19 @@ class PageNumberFinder {
             return;
         }
 
-        this.reversePageLookup = new Hashtable();
+        PageIndex pageIndex = new PageIndex(this.getDocument().getPageCount());
 
-        // Add each node to a list which represent the nodes found on each page.
+        // Add each node to the lists which represent the nodes found on each page in one pass over the document.
         for (Node node : (Iterable<Node>) this.getDocument().getChildNodes(NodeType.ANY, true)) {
             // Headers/Footers follow sections. They are not split by themselves.
             if (isHeaderFooterType(node)) {
                 continue;
             }
 
-            int startPage = this.getPage(node);
-            int endPage = this.getPageEnd(node);
-            for (int page = startPage; page <= endPage; page++) {
-                if (!this.reversePageLookup.containsKey(page)) {
-                    this.reversePageLookup.put(page, new ArrayList());
-                }
-
-                ((ArrayList) this.reversePageLookup.get(page)).add(node);
-            }
+            pageIndex.add(node, this.getPage(node), this.getPageEnd(node));
         }
+
+        this.reversePageLookup = pageIndex;
     }
 
     private void splitRunsByWords(Paragraph paragraph) throws Exception {
@@ -336,16 +463,116 @@ class PageNumberFinder {
     }
 }
 
+/// <summary>
+/// Reverse page lookup used by <see cref="PageNumberFinder"/>.
+/// Pages are addressed by their 1-based index in an array, and the nodes of each page are kept in document order
+/// both in one list and in one list per node type, so a range query only touches the nodes it returns.
+/// </summary>
+class PageIndex {
+    private final PageEntry[] pages;
+
+    /// <summary>
+    /// Initializes a new instance of the <see cref="PageIndex"/> class.
+    /// </summary>
+    /// <param name="pageCount">Number of pages in the document.</param>
+    public PageIndex(int pageCount) {
+        this.pages = new PageEntry[pageCount + 1];
+    }
+
+    /// <summary>
+    /// Adds the node to every page from startPage to endPage. Nodes must be added in document order.
+    /// </summary>
+    public void add(Node node, int startPage, int endPage) {
+        for (int page = Math.max(startPage, 1); page <= endPage && page < this.pages.length; page++) {
+            PageEntry entry = this.pages[page];
+            if (entry == null) {
+                entry = new PageEntry();
+                this.pages[page] = entry;
+            }
+
+            entry.add(node);
+        }
+    }
+
+    /// <summary>
+    /// Returns the nodes of the specified type which are found on the specified pages, in page and document order.
+    /// A node that spans several pages of the range is returned once. Nodes removed from the document are skipped.
+    /// </summary>
+    public ArrayList<Node> retrieveNodes(int startPage, int endPage, int nodeType) {
+        ArrayList<Node> pageNodes = new ArrayList<Node>();
+
+        // Only nodes found on more than one page of the range can be repeated, and those are exactly the nodes
+        // seen on the previous page, so membership is checked against the previous page only.
+        Set<Node> previousPage = Collections.emptySet();
+        for (int page = startPage; page <= endPage && page < this.pages.length; page++) {
+            PageEntry entry = this.pages[page];
+
+            // Some pages can be empty.
+            if (entry == null) {
+                previousPage = Collections.emptySet();
+                continue;
+            }
+
+            List<Node> nodes = entry.getNodes(nodeType);
+            Set<Node> currentPage = newIdentitySet(nodes.size());
+            for (Node node : nodes) {
+                currentPage.add(node);
+                if (node.getParentNode() != null && !previousPage.contains(node)) {
+                    pageNodes.add(node);
+                }
+            }
+
+            previousPage = currentPage;
+        }
+
+        return pageNodes;
+    }
+
+    private static Set<Node> newIdentitySet(int expectedSize) {
+        return Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>(expectedSize));
+    }
+
+    private static class PageEntry {
+        private final ArrayList<Node> allNodes = new ArrayList<Node>();
+        private final HashMap<Integer, ArrayList<Node>> nodesByType = new HashMap<Integer, ArrayList<Node>>();
+
+        void add(Node node) {
+            this.allNodes.add(node);
+
+            ArrayList<Node> bucket = this.nodesByType.get(node.getNodeType());
+            if (bucket == null) {
+                bucket = new ArrayList<Node>();
+                this.nodesByType.put(node.getNodeType(), bucket);
+            }
+
+            bucket.add(node);
+        }
+
+        List<Node> getNodes(int nodeType) {
+            if (nodeType == NodeType.ANY) {
+                return this.allNodes;
+            }
+
+            ArrayList<Node> bucket = this.nodesByType.get(nodeType);
+            return bucket != null ? bucket : Collections.<Node>emptyList();
+        }
+    }
+}
+
 class PageNumberFinderFactory {
     /* Simulation of static class by using private constructor */
     private PageNumberFinderFactory() {
     }
 
     public static PageNumberFinder create(Document document) throws Exception {
+        return create(document, false);
+    }
+
+    public static PageNumberFinder create(Document document, boolean incrementalLayout) throws Exception {
         LayoutCollector layoutCollector = new LayoutCollector(document);
         document.updatePageLayout();
         PageNumberFinder pageNumberFinder = new PageNumberFinder(layoutCollector);
-        pageNumberFinder.splitNodesAcrossPages();
+        pageNumberFinder.splitNodesAcrossPages(incrementalLayout);
         return pageNumberFinder;
     }
 }
@@ -14,6 +14,9 @@ import com.aspose.words.ref.Ref;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.*;
 
 public class SplitIntoHtmlPages {
     public static void main(String[] args) throws Exception {
@@ -34,9 +37,9 @@ public class SplitIntoHtmlPages {
         File outDir = new File(dataDir, "Out");
         outDir.mkdirs();
 
-        // This class does the job.
+        // This class does the job. The topics are saved on one thread per processor.
         Worker w = new Worker();
-        w.execute(srcFileName, tocTemplate, outDir.getPath());
+        w.execute(srcFileName, tocTemplate, outDir.getPath(), Runtime.getRuntime().availableProcessors());
         //ExStart:SplitIntoHtmlPages
 
         System.out.println("Document split into HTML pages successfully.");
@@ -132,13 +135,23 @@ class Worker {
      * @param dstDir      The output directory where to write HTML files. Must exist.
      */
     void execute(String srcFileName, String tocTemplate, String dstDir) throws Exception {
+        execute(srcFileName, tocTemplate, dstDir, 1);
+    }
+
+    /**
+     * Performs the Word to HTML conversion, saving the topics on several threads.
+     *
+     * @param threadCount The number of threads which save topics as HTML. With one thread
+     *                    every topic is saved on the calling thread.
+     */
+    void execute(String srcFileName, String tocTemplate, String dstDir, int threadCount) throws Exception {
         mDoc = new Document(srcFileName);
         mTocTemplate = tocTemplate;
         mDstDir = dstDir;
 
         ArrayList topicStartParas = selectTopicStarts();
         insertSectionBreaks(topicStartParas);
-        ArrayList topics = saveHtmlTopics();
+        ArrayList topics = threadCount > 1 ? saveHtmlTopicsConcurrently(threadCount) : saveHtmlTopics();
         saveTableOfContents(topics);
     }
 
@@ -185,30 +198,114 @@ class Worker {
      */
     private ArrayList saveHtmlTopics() throws Exception {
         ArrayList topics = new ArrayList();
+        HashSet<String> usedFileNames = new HashSet<String>();
         for (int sectionIdx = 0; sectionIdx < mDoc.getSections().getCount(); sectionIdx++) {
             Section section = mDoc.getSections().get(sectionIdx);
+            Topic topic = makeTopic(section, sectionIdx, usedFileNames);
+            topics.add(topic);
 
-            String paraText = section.getBody().getFirstParagraph().getText();
+            saveHtmlTopic(section, topic);
+        }
 
-            // The text of the heading paragaph is used to generate the HTML file name.
-            String fileName = makeTopicFileName(paraText);
-            if ("".equals(fileName))
-                fileName = "UNTITLED SECTION " + sectionIdx;
+        return topics;
+    }
 
-            fileName = new File(mDstDir, fileName + ".html").getPath();
+    /**
+     * Does the same as saveHtmlTopics, but saves the topics on a pool of threads.
+     * <p>
+     * A Document must not be used by several threads at once, so the sections are still
+     * copied into topic documents one by one on this thread. Only saving the independent
+     * topic documents as HTML runs on the pool. At most two topic documents per thread wait
+     * to be saved, which bounds the memory used for large documents.
+     * <p>
+     * The topics are returned in the order of the sections, so the table of contents is
+     * the same as when the topics are saved one by one.
+     */
+    private ArrayList saveHtmlTopicsConcurrently(int threadCount) throws Exception {
+        ArrayList topics = new ArrayList();
+        HashSet<String> usedFileNames = new HashSet<String>();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        final Semaphore pendingTopics = new Semaphore(threadCount * 2);
+        ArrayList<Future<Void>> saveTasks = new ArrayList<Future<Void>>();
+        int checkedTasks = 0;
+
+        try {
+            for (int sectionIdx = 0; sectionIdx < mDoc.getSections().getCount(); sectionIdx++) {
+                Section section = mDoc.getSections().get(sectionIdx);
+                final Topic topic = makeTopic(section, sectionIdx, usedFileNames);
+                topics.add(topic);
+
+                pendingTopics.acquire();
+                final Document topicDoc;
+                try {
+                    topicDoc = createTopicDocument(section, topic);
+                } catch (Exception e) {
+                    pendingTopics.release();
+                    throw e;
+                }
+
+                saveTasks.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        try {
+                            saveTopicDocument(topicDoc, topic);
+                            return null;
+                        } finally {
+                            pendingTopics.release();
+                        }
+                    }
+                }));
+
+                // Stop early if a topic could not be saved.
+                while (checkedTasks < saveTasks.size() && saveTasks.get(checkedTasks).isDone())
+                    getResult(saveTasks.get(checkedTasks++));
+            }
 
-            // The text of the heading paragraph is also used to generate the title for the TOC.
-            String title = makeTopicTitle(paraText);
-            if ("".equals(title))
-                title = "UNTITLED SECTION " + sectionIdx;
+            for (; checkedTasks < saveTasks.size(); checkedTasks++)
+                getResult(saveTasks.get(checkedTasks));
+        } finally {
+            executor.shutdownNow();
+        }
 
-            Topic topic = new Topic(title, fileName);
-            topics.add(topic);
+        return topics;
+    }
 
-            saveHtmlTopic(section, topic);
+    private static void getResult(Future<Void> saveTask) throws Exception {
+        try {
+            saveTask.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
         }
+    }
 
-        return topics;
+    /**
+     * Creates the topic of a section. The text of the heading paragraph is used to generate the
+     * HTML file name and the title of the topic.
+     * <p>
+     * File names are made unique, so topics with the same heading do not overwrite each other.
+     * Aspose.Words names the image files of a topic after its HTML file, so the image files are
+     * unique as well.
+     */
+    private Topic makeTopic(Section section, int sectionIdx, HashSet<String> usedFileNames) throws Exception {
+        String paraText = section.getBody().getFirstParagraph().getText();
+
+        // The text of the heading paragaph is used to generate the HTML file name.
+        String fileName = makeTopicFileName(paraText);
+        if ("".equals(fileName))
+            fileName = "UNTITLED SECTION " + sectionIdx;
+
+        // File names are compared ignoring case, because file systems may do so.
+        String uniqueFileName = fileName;
+        for (int i = 2; !usedFileNames.add(uniqueFileName.toLowerCase(Locale.ROOT)); i++)
+            uniqueFileName = fileName + "_" + i;
+
+        uniqueFileName = new File(mDstDir, uniqueFileName + ".html").getPath();
+
+        // The text of the heading paragraph is also used to generate the title for the TOC.
+        String title = makeTopicTitle(paraText);
+        if ("".equals(title))
+            title = "UNTITLED SECTION " + sectionIdx;
+
+        return new Topic(title, uniqueFileName);
     }
 
     /**
@@ -239,12 +336,25 @@ class Worker {
      * Any embedded images are saved as separate files in the same folder as the HTML file.
      */
     private static void saveHtmlTopic(Section section, Topic topic) throws Exception {
+        saveTopicDocument(createTopicDocument(section, topic), topic);
+    }
+
+    /**
+     * Copies one section of a document into a new document.
+     */
+    private static Document createTopicDocument(Section section, Topic topic) throws Exception {
         Document dummyDoc = new Document();
         dummyDoc.removeAllChildren();
         dummyDoc.appendChild(dummyDoc.importNode(section, true, ImportFormatMode.KEEP_SOURCE_FORMATTING));
 
         dummyDoc.getBuiltInDocumentProperties().setTitle(topic.getTitle());
+        return dummyDoc;
+    }
 
+    /**
+     * Saves a topic document as an HTML file.
+     */
+    private static void saveTopicDocument(Document dummyDoc, Topic topic) throws Exception {
         HtmlSaveOptions saveOptions = new HtmlSaveOptions();
         saveOptions.setPrettyFormat(true);
         // This is to allow headings to appear to the left of main text.
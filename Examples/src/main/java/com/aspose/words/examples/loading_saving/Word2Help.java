@@ -12,8 +12,14 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -62,7 +68,8 @@ public class Word2Help {
 
         TopicCollection topics = new TopicCollection(dataDir, fixUrl);
         topics.addFromDir(dataDir);
-        topics.writeHtml(outDir);
+        // The topics are independent documents, so they are saved on one thread per processor.
+        topics.writeHtml(outDir, Runtime.getRuntime().availableProcessors());
         topics.writeContentXml(outDir);
         //ExEnd:Word2Help
 
@@ -249,38 +256,173 @@ class RegularExpressions {
         return gHtmlTitle;
     }
 
+    private static final String HTML_TITLE_PATTERN = "(?<=\\<title\\>).*?(?=\\</title\\>)";
+    private static Pattern gHtmlTitle;
+}
+//ExEnd:RegularExpressions
+//ExStart:HtmlTopicRewriter
+
+/**
+ * Inserts the standard head, banner and footer into a topic HTML file, in a single forward
+ * pass over the HTML and without holding the whole file in memory:
+ * <p>
+ * - The first head element is replaced with the topic header.
+ * - The banner is inserted after every body start tag and the footer before every body end tag.
+ * - The first div which follows the body start tag after at most 200 white space characters
+ *   gets the id "nstext", which is used by the style sheet of the help.
+ * <p>
+ * Tags are matched ignoring case. Only a few characters after a '<' are read ahead.
+ */
+class HtmlTopicRewriter {
+    HtmlTopicRewriter(String header, String banner, String footer) {
+        mHeader = header;
+        mBanner = banner;
+        mFooter = footer;
+    }
+
     /**
-     * Regular expression specifying html head.
+     * Rewrites the HTML file in place. The result is written to a new temporary file in the same
+     * directory first, which then replaces the original file.
      */
-    public static Pattern getHtmlHead() throws Exception {
-        if (gHtmlHead == null) {
-            gHtmlHead = Pattern.compile(HTML_HEAD_PATTERN,
-                    Pattern.CASE_INSENSITIVE);
+    public void rewriteFile(File file, Charset charset) throws IOException {
+        File tempFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        try {
+            Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), charset));
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), charset));
+                try {
+                    rewrite(reader, writer);
+                } finally {
+                    writer.close();
+                }
+            } finally {
+                reader.close();
+            }
+
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Only left over if the rewrite failed.
+            tempFile.delete();
+        }
+    }
+
+    public void rewrite(Reader in, Writer out) throws IOException {
+        PushbackReader reader = new PushbackReader(in, MAX_BODY_DIV_WHITESPACE + 8);
+        char[] lookAhead = new char[8];
+        boolean isHeadReplaced = false;
+        boolean isBodyDivChecked = false;
+
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c != '<') {
+                out.write(c);
+                continue;
+            }
+
+            int count = readAhead(reader, lookAhead, 6);
+            if (!isHeadReplaced && startsWith(lookAhead, count, "head>")) {
+                reader.unread(lookAhead, 5, count - 5);
+                skipTo(reader, "</head>");
+                out.write(mHeader);
+                isHeadReplaced = true;
+            } else if (startsWith(lookAhead, count, "body>")) {
+                reader.unread(lookAhead, 5, count - 5);
+                out.write("<body>");
+                out.write(mBanner);
+                if (!isBodyDivChecked) {
+                    markBodyDiv(reader, out);
+                    isBodyDivChecked = true;
+                }
+            } else if (startsWith(lookAhead, count, "/body>")) {
+                out.write(mFooter);
+                out.write("</body>");
+            } else {
+                reader.unread(lookAhead, 0, count);
+                out.write(c);
+            }
         }
-        return gHtmlHead;
     }
 
     /**
-     * Regular expression specifying space right after div keyword in the first div declaration of html body.
+     * Adds the id to the div which follows the body start tag, if any. The id attribute is
+     * inserted right after "div".
      */
-    public static Pattern getHtmlBodyDivStart() throws Exception {
-        if (gHtmlBodyDivStart == null) {
-            gHtmlBodyDivStart = Pattern.compile(HTML_BODY_DIV_START_PATTERN,
-                    Pattern.CASE_INSENSITIVE);
+    private static void markBodyDiv(PushbackReader reader, Writer out) throws IOException {
+        char[] buffer = new char[MAX_BODY_DIV_WHITESPACE + 5];
+        int count = 0;
+        int c;
+        while (count <= MAX_BODY_DIV_WHITESPACE && (c = reader.read()) != -1) {
+            buffer[count++] = (char) c;
+            if (!Character.isWhitespace(c))
+                break;
+        }
+
+        // The last character read must be the '<' of the div.
+        int whitespaceCount = count - 1;
+        if (count > 0 && buffer[whitespaceCount] == '<') {
+            count += readAhead(reader, buffer, count, 4);
+            if (count == whitespaceCount + 5
+                    && startsWith(buffer, whitespaceCount + 1, count, "div")
+                    && Character.isWhitespace(buffer[count - 1])) {
+                out.write(buffer, 0, count - 1);
+                out.write(" id=\"nstext\"");
+                out.write(buffer[count - 1]);
+                return;
+            }
         }
-        return gHtmlBodyDivStart;
+
+        reader.unread(buffer, 0, count);
     }
 
-    private static final String HTML_TITLE_PATTERN = "(?<=\\<title\\>).*?(?=\\</title\\>)";
-    private static Pattern gHtmlTitle;
+    /**
+     * Reads and drops characters up to and including the end tag.
+     */
+    private static void skipTo(Reader reader, String endTag) throws IOException {
+        int matched = 0;
+        int c;
+        while (matched < endTag.length() && (c = reader.read()) != -1) {
+            if (Character.toLowerCase((char) c) == endTag.charAt(matched))
+                matched++;
+            else
+                // The end tag contains '<' only at its start, so a mismatch can only restart the match there.
+                matched = (c == '<') ? 1 : 0;
+        }
+    }
+
+    private static int readAhead(Reader reader, char[] buffer, int length) throws IOException {
+        return readAhead(reader, buffer, 0, length);
+    }
+
+    private static int readAhead(Reader reader, char[] buffer, int offset, int length) throws IOException {
+        int count = 0;
+        int c;
+        while (count < length && (c = reader.read()) != -1)
+            buffer[offset + count++] = (char) c;
+        return count;
+    }
+
+    private static boolean startsWith(char[] buffer, int count, String prefix) {
+        return startsWith(buffer, 0, count, prefix);
+    }
 
-    private static final String HTML_HEAD_PATTERN = "\\<head\\>.*?\\</head\\>";
-    private static Pattern gHtmlHead;
+    private static boolean startsWith(char[] buffer, int start, int end, String prefix) {
+        if (end - start < prefix.length())
+            return false;
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(buffer[start + i]) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
 
-    private static final String HTML_BODY_DIV_START_PATTERN = "(?<=\\<body\\>\\s{0,200}\\<div)\\s";
-    private static Pattern gHtmlBodyDivStart;
+    private static final int MAX_BODY_DIV_WHITESPACE = 200;
+
+    private final String mHeader;
+    private final String mBanner;
+    private final String mFooter;
 }
-//ExEnd:RegularExpressions
+//ExEnd:HtmlTopicRewriter
 
 //ExStart:TopicWord2Help
 
@@ -290,8 +432,11 @@ class RegularExpressions {
 class TopicWord2Help {
     /**
      * Creates a topic.
+     *
+     * @param usedFileNames The lower case file names of the topics created so far. The file name of this topic
+     *                      is added to it.
      */
-    public TopicWord2Help(Section section, String fixUrl) throws Exception {
+    public TopicWord2Help(Section section, String fixUrl, HashSet<String> usedFileNames) throws Exception {
         mTopicDoc = new Document();
         mTopicDoc.appendChild(mTopicDoc.importNode(section, true, ImportFormatMode.KEEP_SOURCE_FORMATTING));
         mTopicDoc.getFirstSection().remove();
@@ -314,6 +459,24 @@ class TopicWord2Help {
         mTopicDoc.getBuiltInDocumentProperties().setTitle(mTitle);
 
         fixHyperlinks(section.getDocument(), fixUrl);
+
+        mFileName = makeUniqueFileName(headingToFileName(mTitle), usedFileNames) + ".html";
+    }
+
+    /**
+     * Numbers the file names of topics with the same heading, so the topics do not overwrite each other
+     * when they are saved at the same time. Hyperlinks to such a heading lead to the first topic.
+     */
+    private static String makeUniqueFileName(String fileName, HashSet<String> usedFileNames) {
+        if ("".equals(fileName))
+            fileName = "Topic";
+
+        // File names are compared ignoring case, because file systems may do so.
+        String uniqueFileName = fileName;
+        for (int i = 2; !usedFileNames.add(uniqueFileName.toLowerCase(Locale.ROOT)); i++)
+            uniqueFileName = fileName + "_" + i;
+
+        return uniqueFileName;
     }
 
     private static void throwTopicException(String message, Section section) throws Exception {
@@ -376,42 +539,14 @@ class TopicWord2Help {
         // Export the document to HTML.
         mTopicDoc.save(fileName, saveOptions);
 
-        // We need to modify the HTML string, read HTML back.
-        String html;
-        FileInputStream reader = null;
-
-        try {
-            reader = new FileInputStream(fileName);
-            byte[] fileBytes = new byte[reader.available()];
-            reader.read(fileBytes);
-            html = new String(fileBytes);
-        } finally {
-            if (reader != null) reader.close();
-        }
-
         // Builds the HTML <head> element.
-        String header = htmlHeader.replaceFirst(RegularExpressions.getHtmlTitle().pattern(), mTitle);
-
-        // Applies the new <head> element instead of the original one.
-        html = html.replaceFirst(RegularExpressions.getHtmlHead().pattern(), header);
-        html = html.replaceFirst(RegularExpressions.getHtmlBodyDivStart().pattern(), " id=\"nstext\"");
+        String header = htmlHeader.replaceFirst(RegularExpressions.getHtmlTitle().pattern(), Matcher.quoteReplacement(mTitle));
 
         String banner = htmlBanner.replace("###TOPIC_NAME###", mTitle);
 
-        // Add the standard banner.
-        html = html.replace("<body>", "<body>" + banner);
-
-        // Add the standard footer.
-        html = html.replace("</body>", htmlFooter + "</body>");
-
-        FileOutputStream writer = null;
-
-        try {
-            writer = new FileOutputStream(fileName);
-            writer.write(html.getBytes());
-        } finally {
-            if (writer != null) writer.close();
-        }
+        // Applies the new <head> element instead of the original one and adds the standard banner and footer.
+        // The HTML is streamed from the saved file, so large topics are never held in memory as a whole.
+        new HtmlTopicRewriter(header, banner, htmlFooter).rewriteFile(new File(fileName), saveOptions.getEncoding());
     }
 
     /**
@@ -436,7 +571,7 @@ class TopicWord2Help {
      * Gets the name of the topic html file without path.
      */
     public String getFileName() throws Exception {
-        return headingToFileName(mTitle) + ".html";
+        return mFileName;
     }
 
     public String getTitle() throws Exception {
@@ -457,6 +592,7 @@ class TopicWord2Help {
 
     private final Document mTopicDoc;
     private final String mTitle;
+    private final String mFileName;
     private final int mHeadingLevel;
 }
 //ExEnd:TopicWord2Help
@@ -517,6 +653,38 @@ class TopicCollection {
         }
     }
 
+    /**
+     * Saves all topics as HTML files on the specified number of threads. Every topic is a
+     * separate document, so several topics can be saved and post-processed at the same time.
+     */
+    public void writeHtml(final String outDir, int threadCount) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            ArrayList<Future<Void>> tasks = new ArrayList<Future<Void>>();
+            for (final TopicWord2Help topic : (Iterable<TopicWord2Help>) mTopics) {
+                if (topic.isHeadingOnly())
+                    continue;
+
+                tasks.add(executor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        topic.writeHtml(mHtmlHeader, mHtmlBanner, mHtmlFooter, outDir);
+                        return null;
+                    }
+                }));
+            }
+
+            for (Future<Void> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Saves the content.xml file that describes the tree of topics.
      */
@@ -627,7 +795,7 @@ class TopicCollection {
     private void addTopics(Document doc) throws Exception {
         for (Section section : doc.getSections()) {
             try {
-                TopicWord2Help topic = new TopicWord2Help(section, mFixUrl);
+                TopicWord2Help topic = new TopicWord2Help(section, mFixUrl, mUsedFileNames);
                 mTopics.add(topic);
             } catch (Exception e) {
                 // If one topic fails, we continue with others.
@@ -672,6 +840,7 @@ class TopicCollection {
     }
 
     private final ArrayList mTopics;
+    private final HashSet<String> mUsedFileNames = new HashSet<String>();
     private final String mFixUrl;
     private final String mHtmlHeader;
     private final String mHtmlBanner;
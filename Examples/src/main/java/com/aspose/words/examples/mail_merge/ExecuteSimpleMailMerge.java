@@ -1,6 +1,7 @@
 package com.aspose.words.examples.mail_merge;
 
 import com.aspose.words.Document;
+import com.aspose.words.examples.TemplateCache;
 import com.aspose.words.examples.Utils;
 
 public class ExecuteSimpleMailMerge {
@@ -10,8 +11,8 @@ public class ExecuteSimpleMailMerge {
     public static void main(String[] args) throws Exception {
         //ExStart:
 
-        // Open an existing document.
-        Document doc = new Document(dataDir + "MailMerge.ExecuteArray.doc");
+        // Open an existing document. The template is parsed once and every call gets its own copy.
+        Document doc = TemplateCache.getDefault().getDocument(dataDir + "MailMerge.ExecuteArray.doc");
 
         // Trim trailing and leading whitespaces mail merge values
         doc.getMailMerge().setTrimWhitespaces(false);
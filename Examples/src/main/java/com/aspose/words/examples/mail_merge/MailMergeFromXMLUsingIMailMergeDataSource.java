@@ -5,6 +5,8 @@ import com.aspose.words.examples.Utils;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.FileInputStream;
+import java.io.InputStream;
 
 public class MailMergeFromXMLUsingIMailMergeDataSource {
 
@@ -35,6 +37,34 @@ public class MailMergeFromXMLUsingIMailMergeDataSource {
 
         // Save the output document.
         doc.save(dataDir + "TestFile Out.doc");
+
+        mailMergeFromLargeXml();
     }
     //ExEnd:
+
+    //ExStart:MailMergeFromLargeXml
+    /**
+     * Executes the same mail merge with a data source which reads the XML file
+     * with a pull parser one record at a time, so the file is never loaded into
+     * a DOM. Use this for XML files which do not fit in memory.
+     */
+    public static void mailMergeFromLargeXml() throws Exception {
+        Document doc = new Document(dataDir + "TestFile.doc");
+
+        InputStream xmlStream = new FileInputStream(dataDir + "Customers.xml");
+        try {
+            XmlStreamingMailMergeDataTable dataSource = new XmlStreamingMailMergeDataTable(xmlStream, "customer");
+            try {
+                doc.getMailMerge().execute(dataSource);
+            } finally {
+                // Closes the XML reader even if the mail merge fails.
+                dataSource.close();
+            }
+        } finally {
+            xmlStream.close();
+        }
+
+        doc.save(dataDir + "TestFile Streaming Out.doc");
+    }
+    //ExEnd:MailMergeFromLargeXml
 }
@@ -0,0 +1,365 @@
+package com.aspose.words.examples.mail_merge;
+
+import com.aspose.words.Document;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+//ExStart:
+
+/**
+ * Produces one document per row of a ResultSet on several threads. The work is
+ * split into three stages connected by bounded queues:
+ * <p>
+ * 1. A reader thread streams rows out of the ResultSet into batches.
+ * 2. Worker threads clone the template and execute mail merge for each row of a batch.
+ * 3. Writer threads save the merged documents.
+ * <p>
+ * When a later stage falls behind the queues fill up and the earlier stages wait,
+ * so only a bounded number of rows and documents are held in memory. Documents
+ * are numbered in row order, so the output file names do not depend on the order
+ * in which the threads finish their work.
+ * <p>
+ * An Aspose.Words Document must not be used from several threads at once, so each
+ * worker clones the template once and then clones its own copy for every row.
+ * <p>
+ * When a stage fails, all other stages stop: the stages wait on the queues with a
+ * timeout and give up as soon as an error is recorded, so no stage stays blocked on
+ * a full or empty queue after the stage on the other side has exited.
+ */
+public class MailMergePipeline {
+    /**
+     * Creates a pipeline.
+     *
+     * @param workerCount Number of threads which clone the template and execute mail merge.
+     * @param writerCount Number of threads which save the merged documents.
+     * @param batchSize   Number of rows the reader passes to a worker at a time.
+     */
+    public MailMergePipeline(int workerCount, int writerCount, int batchSize) {
+        if (workerCount < 1 || writerCount < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Thread counts and batch size must be positive");
+        }
+
+        mWorkerCount = workerCount;
+        mWriterCount = writerCount;
+        mBatchSize = batchSize;
+    }
+
+    /**
+     * Merges every row of the ResultSet into a copy of the template and saves it.
+     *
+     * @param rs             The rows to merge. Column names are read from the metadata once.
+     * @param template       The template document. It is only cloned, never modified.
+     * @param outputFileName The file name pattern of the output documents, where {0} is
+     *                       replaced with the 1-based row number.
+     */
+    public void execute(final ResultSet rs, final Document template, final String outputFileName) throws Exception {
+        final BlockingQueue<List<MergeRecord>> batches = new ArrayBlockingQueue<List<MergeRecord>>(mWorkerCount * 2);
+        final BlockingQueue<MergeRecord> merged = new ArrayBlockingQueue<MergeRecord>(mWriterCount * 2);
+        final AtomicInteger remainingWorkers = new AtomicInteger(mWorkerCount);
+        final AtomicReference<Throwable> firstError = new AtomicReference<Throwable>();
+        final ExecutorService executor = Executors.newFixedThreadPool(1 + mWorkerCount + mWriterCount);
+
+        // Each worker gets its own copy of the template, cloned on this thread before the workers start.
+        final String[] fieldNames = getFieldNames(rs.getMetaData());
+        final List<Document> templates = new ArrayList<Document>();
+        for (int i = 0; i < mWorkerCount; i++) {
+            templates.add((Document) template.deepClone(true));
+        }
+
+        executor.submit(new Stage(executor, firstError) {
+            protected void run() throws Exception {
+                readRows(rs, fieldNames.length, batches, firstError);
+            }
+        });
+
+        for (final Document workerTemplate : templates) {
+            executor.submit(new Stage(executor, firstError) {
+                protected void run() throws Exception {
+                    if (!mergeRows(workerTemplate, fieldNames, batches, merged, firstError)) {
+                        return;
+                    }
+
+                    // The last worker to finish tells the writers that no more documents will come.
+                    // A failed worker never gets here, then the writers stop on the recorded error.
+                    if (remainingWorkers.decrementAndGet() == 0) {
+                        for (int i = 0; i < mWriterCount; i++) {
+                            if (!put(merged, MergeRecord.END, firstError)) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            });
+        }
+
+        for (int i = 0; i < mWriterCount; i++) {
+            executor.submit(new Stage(executor, firstError) {
+                protected void run() throws Exception {
+                    saveDocuments(outputFileName, merged, firstError);
+                }
+            });
+        }
+
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            // Keep waiting, the stages stop by themselves when all rows are processed or a stage fails.
+        }
+
+        Throwable error = firstError.get();
+        if (error instanceof Exception) {
+            throw (Exception) error;
+        } else if (error != null) {
+            throw new Exception(error);
+        }
+    }
+
+    /**
+     * Reader stage: streams the rows of the ResultSet into batches.
+     */
+    private void readRows(ResultSet rs, int columnCount, BlockingQueue<List<MergeRecord>> batches,
+                          AtomicReference<Throwable> firstError) throws Exception {
+        int rowNumber = 0;
+        List<MergeRecord> batch = new ArrayList<MergeRecord>(mBatchSize);
+        while (rs.next()) {
+            long start = System.nanoTime();
+            Object[] values = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+
+            batch.add(new MergeRecord(++rowNumber, values));
+            mRowsRead.incrementAndGet();
+            mReadNanos.addAndGet(System.nanoTime() - start);
+
+            if (batch.size() == mBatchSize) {
+                if (!put(batches, batch, firstError)) {
+                    return;
+                }
+                batch = new ArrayList<MergeRecord>(mBatchSize);
+            }
+        }
+
+        if (!batch.isEmpty() && !put(batches, batch, firstError)) {
+            return;
+        }
+
+        // An empty batch tells a worker that there are no more rows.
+        for (int i = 0; i < mWorkerCount; i++) {
+            if (!put(batches, Collections.<MergeRecord>emptyList(), firstError)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Worker stage: clones the template and executes mail merge for every row.
+     *
+     * @return True when all rows were merged, false when the stage stopped because another stage failed.
+     */
+    private boolean mergeRows(Document template, String[] fieldNames, BlockingQueue<List<MergeRecord>> batches,
+                              BlockingQueue<MergeRecord> merged, AtomicReference<Throwable> firstError) throws Exception {
+        while (true) {
+            List<MergeRecord> batch = take(batches, firstError);
+            if (batch == null) {
+                return false;
+            }
+            if (batch.isEmpty()) {
+                return true;
+            }
+
+            for (MergeRecord record : batch) {
+                long start = System.nanoTime();
+                Document dstDoc = (Document) template.deepClone(true);
+                mergeDocument(dstDoc, fieldNames, record.mValues);
+                mDocumentsMerged.incrementAndGet();
+                mMergeNanos.addAndGet(System.nanoTime() - start);
+
+                if (!put(merged, new MergeRecord(record.mNumber, dstDoc), firstError)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writer stage: saves merged documents under a name based on their row number.
+     */
+    private void saveDocuments(String outputFileName, BlockingQueue<MergeRecord> merged,
+                               AtomicReference<Throwable> firstError) throws Exception {
+        while (true) {
+            MergeRecord record = take(merged, firstError);
+            if (record == null || record == MergeRecord.END) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            saveDocument(record.mDocument, MessageFormat.format(outputFileName, Integer.toString(record.mNumber)));
+            mDocumentsSaved.incrementAndGet();
+            mSaveNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Executes mail merge for one row. Runs on a worker thread.
+     */
+    protected void mergeDocument(Document doc, String[] fieldNames, Object[] values) throws Exception {
+        doc.getMailMerge().execute(fieldNames, values);
+    }
+
+    /**
+     * Saves one merged document. Runs on a writer thread.
+     */
+    protected void saveDocument(Document doc, String fileName) throws Exception {
+        doc.save(fileName);
+    }
+
+    /**
+     * Waits until the queue has space for the item. Returns false without adding the item
+     * when another stage failed in the meantime.
+     */
+    private static <T> boolean put(BlockingQueue<T> queue, T item, AtomicReference<Throwable> firstError)
+            throws InterruptedException {
+        while (firstError.get() == null) {
+            if (queue.offer(item, QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Waits until the queue has an item and returns it. Returns null when another stage failed in the meantime.
+     */
+    private static <T> T take(BlockingQueue<T> queue, AtomicReference<Throwable> firstError)
+            throws InterruptedException {
+        while (firstError.get() == null) {
+            T item = queue.poll(QUEUE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                return item;
+            }
+        }
+
+        return null;
+    }
+
+    private static String[] getFieldNames(ResultSetMetaData metaData) throws Exception {
+        String[] fieldNames = new String[metaData.getColumnCount()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            // The label is the alias of the column in the query, if any, the same as ResultSetMailMergeDataSource uses.
+            fieldNames[i] = metaData.getColumnLabel(i + 1);
+        }
+
+        return fieldNames;
+    }
+
+    /**
+     * Prints the number of items each stage processed and its throughput. The time of the
+     * merge and save stages is summed over all of their threads.
+     */
+    public void printStatistics() {
+        System.out.println(formatStage("Read", mRowsRead.get(), mReadNanos.get()));
+        System.out.println(formatStage("Merge", mDocumentsMerged.get(), mMergeNanos.get()));
+        System.out.println(formatStage("Save", mDocumentsSaved.get(), mSaveNanos.get()));
+    }
+
+    private static String formatStage(String name, long count, long nanos) {
+        double seconds = nanos / 1e9;
+        return MessageFormat.format("{0}: {1} items in {2} s ({3} items/s per thread)", name, count,
+                String.format("%.2f", seconds), String.format("%.1f", seconds > 0 ? count / seconds : 0));
+    }
+
+    public long getRowsRead() {
+        return mRowsRead.get();
+    }
+
+    public long getDocumentsMerged() {
+        return mDocumentsMerged.get();
+    }
+
+    public long getDocumentsSaved() {
+        return mDocumentsSaved.get();
+    }
+
+    /**
+     * A row of the data source, and later the document merged from it.
+     */
+    private static class MergeRecord {
+        static final MergeRecord END = new MergeRecord(0, (Document) null);
+
+        final int mNumber;
+        final Object[] mValues;
+        final Document mDocument;
+
+        MergeRecord(int number, Object[] values) {
+            mNumber = number;
+            mValues = values;
+            mDocument = null;
+        }
+
+        MergeRecord(int number, Document document) {
+            mNumber = number;
+            mValues = null;
+            mDocument = document;
+        }
+    }
+
+    /**
+     * A pipeline stage. When a stage fails it records the error and interrupts all
+     * other stages, so none of them stays blocked on a queue.
+     */
+    private abstract static class Stage implements Callable<Void> {
+        private final ExecutorService mExecutor;
+        private final AtomicReference<Throwable> mFirstError;
+
+        Stage(ExecutorService executor, AtomicReference<Throwable> firstError) {
+            mExecutor = executor;
+            mFirstError = firstError;
+        }
+
+        public Void call() {
+            try {
+                run();
+            } catch (Throwable e) {
+                // Stages interrupted after another stage failed do not replace the original error.
+                mFirstError.compareAndSet(null, e);
+                mExecutor.shutdownNow();
+            }
+
+            return null;
+        }
+
+        protected abstract void run() throws Exception;
+    }
+
+    // How long a stage waits on a queue before it checks whether another stage failed.
+    private static final long QUEUE_WAIT_MILLIS = 100;
+
+    /**
+     * Instance variables.
+     */
+    private final int mWorkerCount;
+    private final int mWriterCount;
+    private final int mBatchSize;
+    private final AtomicLong mRowsRead = new AtomicLong();
+    private final AtomicLong mDocumentsMerged = new AtomicLong();
+    private final AtomicLong mDocumentsSaved = new AtomicLong();
+    private final AtomicLong mReadNanos = new AtomicLong();
+    private final AtomicLong mMergeNanos = new AtomicLong();
+    private final AtomicLong mSaveNanos = new AtomicLong();
+}
+//ExEnd:
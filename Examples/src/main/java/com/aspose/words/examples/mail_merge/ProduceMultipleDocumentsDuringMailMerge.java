@@ -1,11 +1,11 @@
 package com.aspose.words.examples.mail_merge;
 
 import com.aspose.words.Document;
+import com.aspose.words.examples.TemplateCache;
 import com.aspose.words.examples.Utils;
 
 import java.sql.*;
 import java.text.MessageFormat;
-import java.util.Hashtable;
 
 //ExStart:
 public class ProduceMultipleDocumentsDuringMailMerge {
@@ -15,57 +15,54 @@ public class ProduceMultipleDocumentsDuringMailMerge {
     public static void main(String[] args) throws Exception {
 
         produceMultipleDocuments(dataDir, "TestFile.doc");
+
+        produceMultipleDocumentsConcurrently(dataDir, "TestFile.doc", Runtime.getRuntime().availableProcessors());
+
+        TemplateCache.getDefault().printStatistics();
+    }
+
+    /**
+     * Produces the same documents as produceMultipleDocuments, but merges and saves them on
+     * several threads. Rows are streamed from the ResultSet in batches through bounded queues,
+     * so large tables do not have to fit in memory.
+     */
+    public static void produceMultipleDocumentsConcurrently(String dataDir, String srcDoc, int workerCount) throws Exception {
+        ResultSet rs = getData(dataDir, "SELECT * FROM Customers");
+
+        // Open the template document. Each worker clones it instead of loading it from disk.
+        Document doc = TemplateCache.getDefault().getDocument(dataDir + srcDoc);
+
+        MailMergePipeline pipeline = new MailMergePipeline(workerCount, 1, 100);
+        pipeline.execute(rs, doc, dataDir + "TestFile Out {0}.doc");
+        pipeline.printStatistics();
     }
 
     public static void produceMultipleDocuments(String dataDir, String srcDoc) throws Exception {
         // Open the database connection.
         ResultSet rs = getData(dataDir, "SELECT * FROM Customers");
 
-        // Open the template document.
-        Document doc = new Document(dataDir + srcDoc);
+        // Open the template document. It is parsed only once, also when both examples run.
+        Document doc = TemplateCache.getDefault().getDocument(dataDir + srcDoc);
+
+        // Column names are resolved once, values are read straight from the current row of the ResultSet.
+        ResultSetMailMergeDataSource dataSource = new ResultSetMailMergeDataSource(rs, "Customers");
 
         // A record of how many documents that have been generated so far.
         int counter = 1;
 
         // Loop though all records in the data source.
-        while (rs.next()) {
+        while (dataSource.moveNext()) {
             // Clone the template instead of loading it from disk (for speed).
             Document dstDoc = (Document) doc.deepClone(true);
 
-            // Extract the data from the current row of the ResultSet into a Hashtable.
-            Hashtable dataMap = getRowData(rs);
-
-            // Execute mail merge.
-            dstDoc.getMailMerge().execute(keySetToArray(dataMap), dataMap.values().toArray());
+            // Execute mail merge with the current row only.
+            dstDoc.getMailMerge().execute(dataSource.getCurrentRow());
 
             // Save the document.
             dstDoc.save(MessageFormat.format(dataDir + "TestFile Out {0}.doc", counter++));
         }
     }
 
-    /**
-     * Creates a Hashtable from the name and value of each column in the current
-     * row of the ResultSet.
-     */
-    public static Hashtable getRowData(ResultSet rs) throws Exception {
-        ResultSetMetaData metaData = rs.getMetaData();
-        Hashtable values = new Hashtable();
-
-        for (int i = 1; i <= metaData.getColumnCount(); i++) {
-            values.put(metaData.getColumnName(i), rs.getObject(i));
-        }
-
-        return values;
-    }
-
-    /**
-     * Utility function that returns the keys of a Hashtable as an array of
-     * Strings.
-     */
-    public static String[] keySetToArray(Hashtable table) {
-        return (String[]) table.keySet().toArray(new String[table.size()]);
-    }
-
     /**
      * Utility function that creates a connection to the Database.
      */
@@ -77,9 +74,8 @@ public class ProduceMultipleDocumentsDuringMailMerge {
         // DSN-less DB connection.
         Connection connection = DriverManager.getConnection(connectionString);
 
-        Statement statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-
-        return statement.executeQuery(query);
+        // Stream the rows in small fetches instead of loading the whole table.
+        return ResultSetMailMergeDataSource.executeStreamingQuery(connection, query, 100);
     }
 }
 //ExEnd:
\ No newline at end of file
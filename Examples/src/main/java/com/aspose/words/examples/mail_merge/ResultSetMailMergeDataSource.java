@@ -0,0 +1,133 @@
+package com.aspose.words.examples.mail_merge;
+
+import com.aspose.words.IMailMergeDataSource;
+import com.aspose.words.ref.Ref;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+
+//ExStart:
+
+/**
+ * A custom mail merge data source which reads values straight from the cursor
+ * of a JDBC ResultSet. Column names are read from the metadata once and mapped
+ * to column indexes, so no per-row map of names and values is built.
+ * <p>
+ * Combined with a forward-only statement and a fetch size (see executeStreamingQuery),
+ * only the rows of the current fetch are held in memory, so large tables are never
+ * fully materialized.
+ */
+public class ResultSetMailMergeDataSource implements IMailMergeDataSource {
+    /**
+     * Creates a new ResultSetMailMergeDataSource.
+     *
+     * @param resultSet The rows to merge. The data source moves the cursor of the ResultSet.
+     * @param tableName The name of the region, used only when executing mail merge with regions.
+     */
+    public ResultSetMailMergeDataSource(ResultSet resultSet, String tableName) throws Exception {
+        mResultSet = resultSet;
+        mTableName = tableName;
+
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            // Field names are case-insensitive, the same as in Microsoft Word. The first column with a name wins.
+            String key = metaData.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            if (!mColumnIndexes.containsKey(key)) {
+                mColumnIndexes.put(key, i);
+            }
+        }
+    }
+
+    /**
+     * Executes a query on a forward-only, read-only statement with the specified fetch size,
+     * so the driver streams the rows instead of loading the whole result.
+     */
+    public static ResultSet executeStreamingQuery(Connection connection, String query, int fetchSize) throws Exception {
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(fetchSize);
+        return statement.executeQuery(query);
+    }
+
+    /**
+     * The name of the data source. Used by Aspose.Words only when executing
+     * mail merge with repeatable regions.
+     */
+    public String getTableName() {
+        return mTableName;
+    }
+
+    /**
+     * Aspose.Words calls this method to get a value for every data field.
+     */
+    public boolean getValue(String fieldName, Ref<Object> fieldValue) throws Exception {
+        Integer columnIndex = mColumnIndexes.get(fieldName.toLowerCase(Locale.ROOT));
+        if (columnIndex == null) {
+            // Field does not exist in the data source, return false.
+            // No value will be merged for this field and it is left over in the document.
+            return false;
+        }
+
+        fieldValue.set(mResultSet.getObject(columnIndex));
+        return true;
+    }
+
+    /**
+     * Moves the cursor to the next row.
+     */
+    public boolean moveNext() throws Exception {
+        return mResultSet.next();
+    }
+
+    /**
+     * The data source has no nested data.
+     */
+    public IMailMergeDataSource getChildDataSource(String tableName) {
+        return null;
+    }
+
+    /**
+     * Returns a data source with only the row the cursor is currently on. Use it to
+     * produce one document per row while moving the cursor yourself.
+     */
+    public IMailMergeDataSource getCurrentRow() {
+        return new CurrentRowDataSource();
+    }
+
+    /**
+     * A view of the current row of the outer data source. It does not move the cursor.
+     */
+    private class CurrentRowDataSource implements IMailMergeDataSource {
+        public String getTableName() {
+            return mTableName;
+        }
+
+        public boolean getValue(String fieldName, Ref<Object> fieldValue) throws Exception {
+            return ResultSetMailMergeDataSource.this.getValue(fieldName, fieldValue);
+        }
+
+        public boolean moveNext() {
+            // There is a single record which is returned the first time only.
+            boolean hasRecord = mIsFirstRecord;
+            mIsFirstRecord = false;
+            return hasRecord;
+        }
+
+        public IMailMergeDataSource getChildDataSource(String tableName) {
+            return null;
+        }
+
+        private boolean mIsFirstRecord = true;
+    }
+
+    /**
+     * Instance variables.
+     */
+    private final ResultSet mResultSet;
+    private final String mTableName;
+    private final HashMap<String, Integer> mColumnIndexes = new HashMap<String, Integer>();
+}
+//ExEnd:
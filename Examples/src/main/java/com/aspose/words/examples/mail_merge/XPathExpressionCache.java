@@ -0,0 +1,62 @@
+package com.aspose.words.examples.mail_merge;
+
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFactory;
+import java.util.HashMap;
+
+//ExStart:
+
+/**
+ * A cache of compiled XPath expressions shared by an XmlMailMergeDataSet and all
+ * XmlMailMergeDataTable instances created from it, including the tables of nested
+ * regions. The XPathFactory is looked up only once per cache and every expression
+ * is compiled only once per thread.
+ * <p>
+ * XPath and XPathExpression objects are not thread-safe, so each thread gets its own
+ * XPath object and expression map. This makes the cache safe to share between
+ * threads merging different documents from the same data set.
+ */
+public class XPathExpressionCache {
+    /**
+     * Returns the compiled expression for the path, compiling it on the first request
+     * from the current thread.
+     */
+    public XPathExpression getExpression(String path) throws Exception {
+        HashMap<String, XPathExpression> expressions = mExpressions.get();
+        XPathExpression expression = expressions.get(path);
+        if (expression == null) {
+            expression = getXPath().compile(path);
+            expressions.put(path, expression);
+        }
+
+        return expression;
+    }
+
+    private XPath getXPath() {
+        XPath xpath = mXPath.get();
+        if (xpath == null) {
+            // XPathFactory is not thread-safe either, so new XPath objects are created under a lock.
+            synchronized (mFactory) {
+                xpath = mFactory.newXPath();
+            }
+
+            mXPath.set(xpath);
+        }
+
+        return xpath;
+    }
+
+    /**
+     * Instance variables.
+     */
+    private final XPathFactory mFactory = XPathFactory.newInstance();
+    private final ThreadLocal<XPath> mXPath = new ThreadLocal<XPath>();
+    private final ThreadLocal<HashMap<String, XPathExpression>> mExpressions = new ThreadLocal<HashMap<String, XPathExpression>>() {
+        @Override
+        protected HashMap<String, XPathExpression> initialValue() {
+            return new HashMap<String, XPathExpression>();
+        }
+    };
+}
+//ExEnd:
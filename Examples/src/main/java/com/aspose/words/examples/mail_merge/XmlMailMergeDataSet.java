@@ -16,9 +16,11 @@ public class XmlMailMergeDataSet implements IMailMergeDataSourceRoot {
     }
 
     public IMailMergeDataSource getDataSource(String tableName) throws Exception {
-        return new XmlMailMergeDataTable(mXmlDoc, tableName);
+        return new XmlMailMergeDataTable(mXmlDoc, tableName, mExpressionCache);
     }
 
     private org.w3c.dom.Document mXmlDoc;
+    // Compiled XPath expressions shared by all tables of this data set and their child tables.
+    private final XPathExpressionCache mExpressionCache = new XPathExpressionCache();
 }
 //ExEnd:
\ No newline at end of file
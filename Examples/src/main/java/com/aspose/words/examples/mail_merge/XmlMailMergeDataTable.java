@@ -3,13 +3,13 @@ package com.aspose.words.examples.mail_merge;
 import com.aspose.words.IMailMergeDataSource;
 import com.aspose.words.ref.Ref;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
-import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathFactory;
 import java.util.HashMap;
+import java.util.Locale;
 
 //ExStart:
 
@@ -33,14 +33,29 @@ public class XmlMailMergeDataTable implements IMailMergeDataSource {
      *                  the region is extracted from.
      */
     public XmlMailMergeDataTable(org.w3c.dom.Document xmlDoc, String tableName) throws Exception {
-        this(xmlDoc.getDocumentElement(), tableName);
+        this(xmlDoc.getDocumentElement(), tableName, new XPathExpressionCache());
+    }
+
+    /**
+     * Creates a new XmlMailMergeDataSource which compiles its XPath expressions
+     * through the specified cache. Used by XmlMailMergeDataSet so that all tables
+     * share one cache.
+     *
+     * @param xmlDoc          The DOM object which contains the parsed XML data.
+     * @param tableName       The name of the element in the data source where the data of
+     *                        the region is extracted from.
+     * @param expressionCache The cache of compiled XPath expressions.
+     */
+    public XmlMailMergeDataTable(org.w3c.dom.Document xmlDoc, String tableName, XPathExpressionCache expressionCache) throws Exception {
+        this(xmlDoc.getDocumentElement(), tableName, expressionCache);
     }
 
     /**
      * Private constructor that is also called by GetChildDataSource.
      */
-    private XmlMailMergeDataTable(Node rootNode, String tableName) throws Exception {
+    private XmlMailMergeDataTable(Node rootNode, String tableName, XPathExpressionCache expressionCache) throws Exception {
         mTableName = tableName;
+        mExpressionCache = expressionCache;
 
         // Get the first element on this level matching the table name.
         mCurrentNode = (Node) retrieveExpression("./" + tableName).evaluate(rootNode, XPathConstants.NODE);
@@ -58,6 +73,27 @@ public class XmlMailMergeDataTable implements IMailMergeDataSource {
      * Aspose.Words calls this method to get a value for every data field.
      */
     public boolean getValue(String fieldName, Ref<Object> fieldValue) throws Exception {
+        if (mUseFieldIndex && !isXPathExpression(fieldName)) {
+            // Look up the value in the fields of the current record, which are indexed once per record.
+            String value = getFieldIndex().get(fieldName.toLowerCase(Locale.ROOT));
+            if (value == null) {
+                // Field does not exist in the data source, return false.
+                // No value will be merged for this field and it is left over in the document.
+                return false;
+            }
+
+            fieldValue.set(value);
+            return true;
+        }
+
+        return getValueByXPath(fieldName, fieldValue);
+    }
+
+    /**
+     * Evaluates the field name as an XPath expression against the current record.
+     * This is used for field names which are XPath expressions rather than plain element names.
+     */
+    private boolean getValueByXPath(String fieldName, Ref<Object> fieldValue) throws Exception {
         // Attempt to retrieve the child node matching the field name by using XPath.
         Node value = (Node) retrieveExpression(fieldName).evaluate(mCurrentNode, XPathConstants.NODE);
         // We also look for the field name in attributes of the element node.
@@ -86,6 +122,8 @@ public class XmlMailMergeDataTable implements IMailMergeDataSource {
      * document stored in a DOM.
      */
     public boolean moveNext() {
+        mFieldIndex = null;
+
         if (!isEof()) {
             // Don't move to the next node if this the first record to be merged.
             if (!mIsFirstRecord) {
@@ -118,27 +156,79 @@ public class XmlMailMergeDataTable implements IMailMergeDataSource {
      * </Tables>
      */
     public IMailMergeDataSource getChildDataSource(String tableName) throws Exception {
-        return new XmlMailMergeDataTable(mCurrentNode, tableName);
+        // Child tables share the expression cache of their parent.
+        return new XmlMailMergeDataTable(mCurrentNode, tableName, mExpressionCache);
     }
 
     private boolean isEof() {
         return (mCurrentNode == null);
     }
 
+    /**
+     * Returns the values of the current record keyed by the lower case field name. The index is
+     * built on the first lookup after moveNext from the child elements of the record, then from
+     * its attributes. Field names are case-insensitive, the same as in Microsoft Word.
+     */
+    private HashMap<String, String> getFieldIndex() {
+        if (mFieldIndex != null) {
+            return mFieldIndex;
+        }
+
+        mFieldIndex = new HashMap<String, String>();
+        for (Node child = mCurrentNode.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                // The first child element with a name wins, the same as an XPath lookup.
+                String key = child.getNodeName().toLowerCase(Locale.ROOT);
+                if (!mFieldIndex.containsKey(key)) {
+                    mFieldIndex.put(key, child.getTextContent());
+                }
+            }
+        }
+
+        // Child elements take precedence over attributes with the same name.
+        NamedNodeMap attributes = mCurrentNode.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attribute = attributes.item(i);
+            String key = attribute.getNodeName().toLowerCase(Locale.ROOT);
+            if (!mFieldIndex.containsKey(key)) {
+                mFieldIndex.put(key, attribute.getNodeValue());
+            }
+        }
+
+        return mFieldIndex;
+    }
+
+    private static boolean isXPathExpression(String fieldName) {
+        for (int i = 0; i < fieldName.length(); i++) {
+            switch (fieldName.charAt(i)) {
+                case '/':
+                case '[':
+                case '@':
+                case '(':
+                case '*':
+                    return true;
+                default:
+                    break;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Switches between the per-record field index (the default) and evaluating an XPath expression
+     * for every field. Used to compare both approaches in XmlMailMergeDataTableBenchmark.
+     */
+    void setUseFieldIndex(boolean useFieldIndex) {
+        mUseFieldIndex = useFieldIndex;
+    }
+
     /**
      * Returns a cached version of a compiled XPathExpression if available,
      * otherwise creates a new expression.
      */
     private XPathExpression retrieveExpression(String path) throws Exception {
-        XPathExpression expression;
-
-        if (mExpressionSet.containsKey(path)) {
-            expression = (XPathExpression) mExpressionSet.get(path);
-        } else {
-            expression = mXPath.compile(path);
-            mExpressionSet.put(path, expression);
-        }
-        return expression;
+        return mExpressionCache.getExpression(path);
     }
 
     /**
@@ -146,8 +236,9 @@ public class XmlMailMergeDataTable implements IMailMergeDataSource {
      */
     private Node mCurrentNode;
     private boolean mIsFirstRecord = true;
+    private boolean mUseFieldIndex = true;
+    private HashMap<String, String> mFieldIndex;
     private final String mTableName;
-    private final HashMap mExpressionSet = new HashMap();
-    private final XPath mXPath = XPathFactory.newInstance().newXPath();
+    private final XPathExpressionCache mExpressionCache;
 }
 //ExEnd:
\ No newline at end of file
@@ -0,0 +1,226 @@
+package com.aspose.words.examples.mail_merge;
+
+import com.aspose.words.IMailMergeDataSource;
+import com.aspose.words.ref.Ref;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+//ExStart:
+
+/**
+ * A custom mail merge data source that reads XML data with a StAX pull parser
+ * instead of loading the whole file into a DOM. Use it in place of
+ * XmlMailMergeDataTable when the XML file is too large to fit in memory.
+ * <p>
+ * Records are the elements with the table name found directly under the root
+ * element, the same as in XmlMailMergeDataTable. Only the current record is kept
+ * in memory: its child elements and attributes are stored in a small map for
+ * getValue and the record's subtree is used for nested regions.
+ * <p>
+ * Field names must be names of child elements or attributes of the record, XPath
+ * expressions are not supported. The records can only be read once, so the data
+ * source can be merged into a single region only.
+ */
+public class XmlStreamingMailMergeDataTable implements IMailMergeDataSource {
+    /**
+     * Creates a new XmlStreamingMailMergeDataTable which reads records from the
+     * specified stream. The stream is not closed by this class.
+     *
+     * @param xmlStream The stream with the XML data.
+     * @param tableName The name of the elements in the data source where the data of
+     *                  the region is extracted from.
+     */
+    public XmlStreamingMailMergeDataTable(InputStream xmlStream, String tableName) throws Exception {
+        mReader = XMLInputFactory.newInstance().createXMLStreamReader(xmlStream);
+        mTableName = tableName;
+    }
+
+    /**
+     * The name of the data source. Used by Aspose.Words only when executing
+     * mail merge with repeatable regions.
+     */
+    public String getTableName() {
+        return mTableName;
+    }
+
+    /**
+     * Aspose.Words calls this method to get a value for every data field.
+     */
+    public boolean getValue(String fieldName, Ref<Object> fieldValue) throws Exception {
+        return mCurrentRecord != null && mCurrentRecord.getValue(fieldName, fieldValue);
+    }
+
+    /**
+     * Reads the XML forward to the next record and loads it. The previous record
+     * is released.
+     */
+    public boolean moveNext() throws Exception {
+        mCurrentRecord = null;
+
+        while (mReader.hasNext()) {
+            int event = mReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                mDepth++;
+
+                // Records are direct children of the root element.
+                if (mDepth == 2 && mReader.getLocalName().equals(mTableName)) {
+                    mCurrentRecord = XmlRecord.read(mReader);
+                    mDepth--;
+                    return true;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                mDepth--;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the child elements of the current record with the specified name
+     * as a nested data source. The child records are taken from the subtree of
+     * the current record which is already in memory.
+     */
+    public IMailMergeDataSource getChildDataSource(String tableName) {
+        if (mCurrentRecord == null) {
+            return null;
+        }
+
+        return new XmlRecordDataTable(mCurrentRecord.getChildren(tableName), tableName);
+    }
+
+    /**
+     * Closes the underlying XML reader. The stream itself is not closed.
+     */
+    public void close() throws Exception {
+        mReader.close();
+    }
+
+    /**
+     * A single XML element read from the stream along with its subtree.
+     */
+    static class XmlRecord {
+        private final String mName;
+        private final HashMap<String, String> mValues = new HashMap<String, String>();
+        private final List<XmlRecord> mChildren = new ArrayList<XmlRecord>();
+        private String mText;
+
+        private XmlRecord(String name) {
+            mName = name;
+        }
+
+        /**
+         * Reads the element the reader is positioned at, up to and including its end tag.
+         */
+        static XmlRecord read(XMLStreamReader reader) throws Exception {
+            XmlRecord record = new XmlRecord(reader.getLocalName());
+            HashMap<String, String> attributes = new HashMap<String, String>();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+            }
+
+            StringBuilder text = new StringBuilder();
+            while (true) {
+                int event = reader.next();
+                switch (event) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        XmlRecord child = XmlRecord.read(reader);
+                        record.mChildren.add(child);
+                        text.append(child.mText);
+
+                        // The first child element with a name wins, the same as an XPath lookup.
+                        if (!record.mValues.containsKey(child.mName)) {
+                            record.mValues.put(child.mName, child.mText);
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        text.append(reader.getText());
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        record.mText = text.toString();
+
+                        // Child elements take precedence over attributes with the same name.
+                        for (String name : attributes.keySet()) {
+                            if (!record.mValues.containsKey(name)) {
+                                record.mValues.put(name, attributes.get(name));
+                            }
+                        }
+                        return record;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        boolean getValue(String fieldName, Ref<Object> fieldValue) {
+            String value = mValues.get(fieldName);
+            if (value == null) {
+                // Field does not exist in the data source, return false.
+                // No value will be merged for this field and it is left over in the document.
+                return false;
+            }
+
+            fieldValue.set(value);
+            return true;
+        }
+
+        List<XmlRecord> getChildren(String name) {
+            List<XmlRecord> children = new ArrayList<XmlRecord>();
+            for (XmlRecord child : mChildren) {
+                if (child.mName.equals(name)) {
+                    children.add(child);
+                }
+            }
+
+            return children;
+        }
+    }
+
+    /**
+     * A nested data source over the child records of a record which is already in memory.
+     */
+    static class XmlRecordDataTable implements IMailMergeDataSource {
+        XmlRecordDataTable(List<XmlRecord> records, String tableName) {
+            mRecords = records;
+            mTableName = tableName;
+        }
+
+        public String getTableName() {
+            return mTableName;
+        }
+
+        public boolean getValue(String fieldName, Ref<Object> fieldValue) {
+            return mRecords.get(mIndex).getValue(fieldName, fieldValue);
+        }
+
+        public boolean moveNext() {
+            mIndex++;
+            return mIndex < mRecords.size();
+        }
+
+        public IMailMergeDataSource getChildDataSource(String tableName) {
+            return new XmlRecordDataTable(mRecords.get(mIndex).getChildren(tableName), tableName);
+        }
+
+        private final List<XmlRecord> mRecords;
+        private final String mTableName;
+        private int mIndex = -1;
+    }
+
+    /**
+     * Instance variables.
+     */
+    private final XMLStreamReader mReader;
+    private final String mTableName;
+    private XmlRecord mCurrentRecord;
+    private int mDepth;
+}
+//ExEnd:
@@ -4,11 +4,16 @@ import com.aspose.words.Document;
 import com.aspose.words.SaveFormat;
 import com.aspose.words.examples.Utils;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
+import java.io.*;
 import java.sql.*;
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 
 public class DocumentInDB {
@@ -50,31 +55,95 @@ public class DocumentInDB {
     //ExId:DocumentInDB_StoreToDB
     //ExSummary:Stores the document to the specified database.
     public static void storeToDatabase(Document doc) throws Exception {
-        // Save the document to a OutputStream object.
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        doc.save(outputStream, SaveFormat.DOC);
+        storeToDatabase(doc, false);
+    }
 
+    /**
+     * Stores a document object to the specified database. The document is saved straight
+     * into the JDBC stream through a pipe, so the whole document is not held in a buffer
+     * unless the driver cannot take a stream of unknown length.
+     *
+     * @param doc      The source document.
+     * @param compress True to store the document compressed with GZIP. readFromDatabase detects
+     *                 compressed documents by their header, so both kinds can be stored in one table.
+     */
+    public static void storeToDatabase(final Document doc, final boolean compress) throws Exception {
         // Get the filename from the document.
         String fileName = new File(doc.getOriginalFileName()).getName();
 
-        // Create the SQL command.
+        // Save the document on another thread, which writes into the pipe while the driver reads from it.
+        // This thread only waits for the driver, so the document is still used by one thread at a time.
+        final PipedInputStream inputStream = new PipedInputStream(PIPE_BUFFER_SIZE);
+        final PipedOutputStream outputStream = new PipedOutputStream(inputStream);
+        FutureTask<Void> saveTask = new FutureTask<Void>(new Callable<Void>() {
+            public Void call() throws Exception {
+                OutputStream documentStream = compress ? new GZIPOutputStream(outputStream, PIPE_BUFFER_SIZE) : outputStream;
+                doc.save(documentStream, SaveFormat.DOC);
+
+                // Closing the pipe tells the driver that the document is complete. If saving fails the pipe
+                // stays open, the driver gets an IOException once this thread ends and nothing is stored.
+                documentStream.close();
+                return null;
+            }
+        });
+        Thread saveThread = new Thread(saveTask, "DocumentInDB save");
+        saveThread.setDaemon(true);
+        saveThread.start();
+
+        // Borrow a prepared statement to store the data into the database.
         String commandString = "INSERT INTO Documents (FileName, FileContent) VALUES(?, ?)";
-
-        // Prepare the statement to store the data into the database.
-        PreparedStatement statement = mConnection.prepareStatement(commandString);
-
-        // Add the parameter value for FileName.
-        statement.setString(1, fileName);
-
-        // Add the parameter value for FileContent.
-        statement.setBinaryStream(2, new ByteArrayInputStream(outputStream.toByteArray()), outputStream.size());
-
-        // Execute and commit the changes.
-        statement.execute();
-        mConnection.commit();
+        PreparedStatement statement = mStatementPool.borrow(commandString);
+        try {
+            // Add the parameter value for FileName.
+            statement.setString(1, fileName);
+
+            // Add the parameter value for FileContent. The length is not known in advance.
+            setBinaryStream(statement, 2, inputStream);
+
+            // Execute and commit the changes.
+            statement.execute();
+            mConnection.commit();
+        } finally {
+            mStatementPool.release(commandString, statement);
+            // Unblocks the save thread if the driver stopped reading early.
+            inputStream.close();
+        }
+
+        try {
+            saveTask.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
     }
     //ExEnd
 
+    /**
+     * Sets a stream of unknown length as the value of a parameter. The setter without a length was added
+     * in JDBC 4, older drivers such as the JDBC-ODBC bridge throw for it. For those the stream is read
+     * into a buffer and passed with its length.
+     */
+    static void setBinaryStream(PreparedStatement statement, int parameterIndex, InputStream stream) throws Exception {
+        try {
+            statement.setBinaryStream(parameterIndex, stream);
+            return;
+        } catch (SQLFeatureNotSupportedException e) {
+            // Fall back to a buffer below.
+        } catch (UnsupportedOperationException e) {
+            // Fall back to a buffer below.
+        } catch (AbstractMethodError e) {
+            // The driver was compiled against JDBC 3, fall back to a buffer below.
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] bytes = new byte[PIPE_BUFFER_SIZE];
+        int readBytes;
+        while ((readBytes = stream.read(bytes)) != -1) {
+            buffer.write(bytes, 0, readBytes);
+        }
+
+        statement.setBinaryStream(parameterIndex, new ByteArrayInputStream(buffer.toByteArray()), buffer.size());
+    }
+
     /**
      * Retreives a document from the specified database and saves it to disk.
      *
@@ -84,32 +153,49 @@ public class DocumentInDB {
     //ExId:DocumentInDB_ReadFromDB
     //ExSummary:Retrieves and returns the document from the specified database using the filename as a key to fetch the document.
     public static Document readFromDatabase(String fileName) throws Exception {
-        // Create the SQL command.
-        String commandString = "SELECT * FROM Documents WHERE FileName='" + fileName + "'";
-
-        // Retrieve the results from the database.
-        ResultSet resultSet = executeQuery(commandString);
-
-        // Check there was a matching record found from the database and throw an exception if no record was found.
-        if (!resultSet.isBeforeFirst())
-            throw new IllegalArgumentException(MessageFormat.format("Could not find any record matching the document \"{0}\" in the database.", fileName));
-
-        // Move to the first record.
-        resultSet.next();
-
-        // The document is stored in byte form in the FileContent column.
-        // Retrieve these bytes of the first matching record to a new buffer.
-        byte[] buffer = resultSet.getBytes("FileContent");
-
-        // Wrap the bytes from the buffer into a new ByteArrayInputStream object.
-        ByteArrayInputStream newStream = new ByteArrayInputStream(buffer);
-
-        // Read the document from the input stream.
-        Document doc = new Document(newStream);
-
-        // Return the retrieved document.
-        return doc;
+        // Borrow a prepared statement which selects the content column only.
+        String commandString = "SELECT FileContent FROM Documents WHERE FileName=?";
+        PreparedStatement statement = mStatementPool.borrow(commandString);
+        try {
+            statement.setString(1, fileName);
+
+            // Retrieve the results from the database.
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                // Check there was a matching record found from the database and throw an exception if no record was found.
+                if (!resultSet.next())
+                    throw new IllegalArgumentException(MessageFormat.format("Could not find any record matching the document \"{0}\" in the database.", fileName));
+
+                // The document is stored in byte form in the FileContent column.
+                // Read the document straight from the stream of the column instead of copying it into a buffer.
+                InputStream contentStream = resultSet.getBinaryStream(1);
+                try {
+                    return new Document(openDocumentStream(contentStream));
+                } finally {
+                    contentStream.close();
+                }
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            mStatementPool.release(commandString, statement);
+        }
+    }
 
+    /**
+     * Returns a stream which decompresses the content if it was stored compressed.
+     */
+    private static InputStream openDocumentStream(InputStream contentStream) throws Exception {
+        PushbackInputStream stream = new PushbackInputStream(contentStream, 2);
+        byte[] header = new byte[2];
+        int headerLength = stream.read(header);
+        if (headerLength > 0) {
+            stream.unread(header, 0, headerLength);
+        }
+
+        // Neither DOC nor any other format Aspose.Words saves starts with the GZIP magic number.
+        boolean isCompressed = headerLength == 2 && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b;
+        return isCompressed ? new GZIPInputStream(stream, PIPE_BUFFER_SIZE) : stream;
     }
     //ExEnd
 
@@ -123,10 +209,16 @@ public class DocumentInDB {
     //ExSummary:Delete the document from the database, using filename to fetch the record.
     public static void deleteFromDatabase(String fileName) throws Exception {
         // Create the SQL command.
-        String commandString = "DELETE * FROM Documents WHERE FileName='" + fileName + "'";
+        String commandString = "DELETE * FROM Documents WHERE FileName=?";
 
         // Execute the command.
-        createStatement().executeUpdate(commandString);
+        PreparedStatement statement = mStatementPool.borrow(commandString);
+        try {
+            statement.setString(1, fileName);
+            statement.executeUpdate();
+        } finally {
+            mStatementPool.release(commandString, statement);
+        }
     }
     //ExEnd
 
@@ -148,7 +240,15 @@ public class DocumentInDB {
         String connectionString = "jdbc:odbc:DRIVER={Microsoft Access Driver (*.mdb)};" +
                 "DBQ=" + dataBase + ";UID=Admin";
         // Create a connection to the database.
-        mConnection = DriverManager.getConnection(connectionString);
+        setConnection(DriverManager.getConnection(connectionString));
+    }
+
+    /**
+     * Uses the specified connection for all following operations, for example a connection of another JDBC driver.
+     */
+    public static void setConnection(Connection connection) {
+        mConnection = connection;
+        mStatementPool = new StatementPool(connection, STATEMENT_POOL_SIZE);
     }
 
     /**
@@ -166,8 +266,61 @@ public class DocumentInDB {
     }
     //ExEnd
 
+    /**
+     * Keeps a few prepared statements per SQL command open, so they are not prepared again
+     * for every document. A statement is used by one caller at a time.
+     */
+    static class StatementPool {
+        StatementPool(Connection connection, int maxIdlePerCommand) {
+            mPoolConnection = connection;
+            mMaxIdlePerCommand = maxIdlePerCommand;
+        }
+
+        PreparedStatement borrow(String commandString) throws SQLException {
+            PreparedStatement statement = null;
+            synchronized (mIdleStatements) {
+                ArrayDeque<PreparedStatement> idle = mIdleStatements.get(commandString);
+                if (idle != null) {
+                    statement = idle.poll();
+                }
+            }
+
+            return statement != null ? statement : mPoolConnection.prepareStatement(commandString);
+        }
+
+        void release(String commandString, PreparedStatement statement) throws SQLException {
+            statement.clearParameters();
+            synchronized (mIdleStatements) {
+                ArrayDeque<PreparedStatement> idle = mIdleStatements.get(commandString);
+                if (idle == null) {
+                    idle = new ArrayDeque<PreparedStatement>();
+                    mIdleStatements.put(commandString, idle);
+                }
+
+                if (idle.size() < mMaxIdlePerCommand) {
+                    idle.push(statement);
+                    return;
+                }
+            }
+
+            statement.close();
+        }
+
+        private final Connection mPoolConnection;
+        private final int mMaxIdlePerCommand;
+        private final HashMap<String, ArrayDeque<PreparedStatement>> mIdleStatements = new HashMap<String, ArrayDeque<PreparedStatement>>();
+    }
+
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+    private static final int STATEMENT_POOL_SIZE = 4;
+
     /*
      * A connection to the database.
      */
     public static Connection mConnection;
+
+    /*
+     * Prepared statements of the connection.
+     */
+    static StatementPool mStatementPool;
 }
\ No newline at end of file
@@ -12,10 +12,20 @@ import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.security.MessageDigest;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class CompressImages {
@@ -56,6 +66,14 @@ public class CompressImages {
 
         assert (imagePpi < 150) : "Image was not resampled successfully.";
         //ExEnd:CompressImages
+
+        //ExStart:CompressImagesInParallel
+        // Resample the images on several threads. Identical images of the same size are processed only once.
+        doc = new Document(srcFileName);
+        ResampleReport report = Resampler.resample(doc, desiredPpi, jpegQuality, Runtime.getRuntime().availableProcessors());
+        report.print();
+        doc.save(srcFileName + ".Resampled Parallel Out.docx");
+        //ExEnd:CompressImagesInParallel
     }
 
     //ExStart:getFileSize
@@ -79,24 +97,168 @@ class Resampler {
     public static int resample(Document doc, int desiredPpi, int jpegQuality) throws Exception {
         int count = 0;
 
-        // Convert VML shapes.
-        for (Shape vmlShape : (Iterable<Shape>) doc.getChildNodes(NodeType.SHAPE, true)) {
+        // VML and DrawingML shapes are both Shape nodes, so each shape is visited once.
+        for (Shape shape : (Iterable<Shape>) doc.getChildNodes(NodeType.SHAPE, true)) {
             // It is important to use this method to correctly get the picture shape size in points even if the picture is inside a group shape.
-            Point2D.Float shapeSizeInPoints = vmlShape.getSizeInPoints();
+            Point2D.Float shapeSizeInPoints = shape.getSizeInPoints();
 
-            if (resampleCore(vmlShape.getImageData(), shapeSizeInPoints, desiredPpi, jpegQuality))
+            if (resampleCore(shape.getImageData(), shapeSizeInPoints, desiredPpi, jpegQuality))
                 count++;
         }
 
-        // Convert DrawingML shapes.
-        for (com.aspose.words.Shape dmlShape : (Iterable<com.aspose.words.Shape>) doc.getChildNodes(NodeType.SHAPE, true)) {
-            // In MS Word the size of a DrawingML shape is always in points at the moment.
-            Point2D.Float shapeSizeInPoints = dmlShape.getSizeInPoints();
-            if (resampleCore(dmlShape.getImageData(), shapeSizeInPoints, desiredPpi, jpegQuality))
-                count++;
+        return count;
+    }
+
+    /**
+     * Resamples all images in the document the same way as resample(Document, int, int), but decodes, scales and encodes
+     * the images on a pool of threads. Images with identical bytes that are resampled to the same size are processed once
+     * and the result is stored in all of their shapes.
+     * <p>
+     * The document itself is only accessed from the calling thread; the worker threads only work on copies of the image bytes.
+     *
+     * @param doc         The document to process.
+     * @param desiredPpi  Desired pixels per inch. 220 high quality. 150 screen quality. 96 email quality.
+     * @param jpegQuality 0 - 100% JPEG quality.
+     * @param threadCount Number of threads that resample images.
+     */
+    public static ResampleReport resample(Document doc, int desiredPpi, final int jpegQuality, int threadCount) throws Exception {
+        ResampleReport report = new ResampleReport();
+
+        // Group the images that need resampling by their bytes and target size.
+        Map<String, ResampleJob> jobs = new LinkedHashMap<String, ResampleJob>();
+        for (Shape shape : (Iterable<Shape>) doc.getChildNodes(NodeType.SHAPE, true)) {
+            report.addShape();
+            ResampleJob job;
+            try {
+                job = createJob(shape.getImageData(), shape.getSizeInPoints(), desiredPpi);
+            } catch (Exception e) {
+                // Log an error and continue if cannot read one of the images for whatever reason.
+                System.out.println("Error processing an image, ignoring. " + e.getMessage());
+                report.addFailedShapes(1);
+                continue;
+            }
+            if (job == null)
+                continue;
+
+            ResampleJob existingJob = jobs.get(job.mKey);
+            if (existingJob != null) {
+                existingJob.mImages.add(job.mImages.get(0));
+            } else {
+                jobs.put(job.mKey, job);
+            }
         }
 
-        return count;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<byte[]>> results = new ArrayList<Future<byte[]>>();
+            for (final ResampleJob job : jobs.values()) {
+                results.add(executor.submit(new Callable<byte[]>() {
+                    public byte[] call() throws Exception {
+                        long start = System.nanoTime();
+                        try {
+                            BufferedImage srcImage = decode(job.mOriginalBytes);
+                            // Formats ImageIO cannot read are decoded by Aspose.Words on the calling thread.
+                            if (srcImage == null)
+                                return null;
+
+                            return encodeJpeg(scale(srcImage, job.mWidthPixels, job.mHeightPixels), jpegQuality);
+                        } finally {
+                            job.mNanos = System.nanoTime() - start;
+                        }
+                    }
+                }));
+            }
+
+            // Store the results on the calling thread, in document order.
+            int index = 0;
+            for (ResampleJob job : jobs.values()) {
+                byte[] dstBytes;
+                try {
+                    dstBytes = results.get(index++).get();
+                    if (dstBytes == null) {
+                        // Decode the same way resample(Document, int, int) does. ImageData.toImage() uses the document,
+                        // so it is called on this thread.
+                        long start = System.nanoTime();
+                        BufferedImage srcImage = job.mImages.get(0).toImage();
+                        dstBytes = encodeJpeg(scale(srcImage, job.mWidthPixels, job.mHeightPixels), jpegQuality);
+                        job.mNanos += System.nanoTime() - start;
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // Log an error and continue if cannot process one of the images for whatever reason.
+                    Throwable cause = e instanceof java.util.concurrent.ExecutionException ? e.getCause() : e;
+                    System.out.println("Error processing an image, ignoring. " + cause.getMessage());
+                    report.addFailedShapes(job.mImages.size());
+                    continue;
+                }
+
+                // If the image saved as JPEG is smaller than the original, store it in the shapes.
+                if (dstBytes.length < job.mOriginalBytes.length) {
+                    for (ImageData imageData : job.mImages)
+                        imageData.setImageBytes(dstBytes);
+
+                    report.add(job, dstBytes.length);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        return report;
+    }
+
+    /**
+     * Checks whether the image needs resampling and returns a job for it, or null if it does not.
+     */
+    private static ResampleJob createJob(ImageData imageData, Point2D.Float shapeSizeInPoints, int ppi) throws Exception {
+        if (imageData == null)
+            return null;
+
+        byte[] originalBytes = imageData.getImageBytes();
+        if (originalBytes == null)
+            return null;
+
+        int imageType = imageData.getImageType();
+        if ((imageType == ImageType.WMF) || (imageType == ImageType.EMF))
+            return null;
+
+        double shapeWidthInches = ConvertUtil.pointToInch(shapeSizeInPoints.getX());
+        double shapeHeightInches = ConvertUtil.pointToInch(shapeSizeInPoints.getY());
+
+        ImageSize imageSize = imageData.getImageSize();
+        double currentPpiX = imageSize.getWidthPixels() / shapeWidthInches;
+        double currentPpiY = imageSize.getHeightPixels() / shapeHeightInches;
+        if ((currentPpiX <= ppi) || (currentPpiY <= ppi))
+            return null;
+
+        ResampleJob job = new ResampleJob();
+        job.mOriginalBytes = originalBytes;
+        job.mWidthPixels = (int) (shapeWidthInches * ppi);
+        job.mHeightPixels = (int) (shapeHeightInches * ppi);
+        job.mKey = toHex(MessageDigest.getInstance("SHA-256").digest(originalBytes)) + ":" + job.mWidthPixels + "x" + job.mHeightPixels;
+        job.mImages.add(imageData);
+        return job;
+    }
+
+    /**
+     * Decodes the image with ImageIO. Returns null if ImageIO has no reader for the image, or its reader does not support
+     * the color model of the image, for example CMYK JPEG.
+     */
+    private static BufferedImage decode(byte[] imageBytes) {
+        try {
+            return ImageIO.read(new ByteArrayInputStream(imageBytes));
+        } catch (java.io.IOException e) {
+            return null;
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+            builder.append(String.format("%02x", b));
+
+        return builder.toString();
     }
 
     /**
@@ -139,29 +301,56 @@ class Resampler {
             // Create a new image of such size that it will hold only the pixels required by the desired ppi.
             int dstWidthPixels = (int) (shapeWidthInches * ppi);
             int dstHeightPixels = (int) (shapeHeightInches * ppi);
-            BufferedImage dstImage = new BufferedImage(dstWidthPixels, dstHeightPixels, getResampledImageType(srcImage.getType()));
+            byte[] dstBytes = encodeJpeg(scale(srcImage, dstWidthPixels, dstHeightPixels), jpegQuality);
 
-            // Drawing the source image to the new image scales it to the new size.
-            Graphics2D g = (Graphics2D) dstImage.getGraphics();
-            try {
-                // Setting any other interpolation or rendering value can increase the time taken extremely.
-                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
-                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-                g.drawImage(
-                        srcImage,
-                        0, 0, dstWidthPixels, dstHeightPixels,
-                        0, 0, srcImage.getWidth(), srcImage.getHeight(),
-                        null);
-            } finally {
-                g.dispose();
+            // If the image saved as JPEG is smaller than the original, store it in the shape.
+            System.out.println(MessageFormat.format("Original size {0}, new size {1}.", originalBytes.length, dstBytes.length));
+            if (dstBytes.length < originalBytes.length) {
+                imageData.setImageBytes(dstBytes);
+                return true;
             }
+        } catch (Exception e) {
+            // Catch an exception, log an error and continue if cannot process one of the images for whatever reason.
+            System.out.println("Error processing an image, ignoring. " + e.getMessage());
+        }
 
+        return false;
+    }
 
-            // Create JPEG encoder parameters with the quality setting.
-            Iterator writers = ImageIO.getImageWritersByFormatName("jpeg");
-            ImageWriter writer = (ImageWriter) writers.next();
+    /**
+     * Scales the image to the specified size.
+     */
+    private static BufferedImage scale(BufferedImage srcImage, int dstWidthPixels, int dstHeightPixels) {
+        BufferedImage dstImage = new BufferedImage(dstWidthPixels, dstHeightPixels, getResampledImageType(srcImage.getType()));
+
+        // Drawing the source image to the new image scales it to the new size.
+        Graphics2D g = (Graphics2D) dstImage.getGraphics();
+        try {
+            // Setting any other interpolation or rendering value can increase the time taken extremely.
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            g.drawImage(
+                    srcImage,
+                    0, 0, dstWidthPixels, dstHeightPixels,
+                    0, 0, srcImage.getWidth(), srcImage.getHeight(),
+                    null);
+        } finally {
+            g.dispose();
+        }
+
+        return dstImage;
+    }
+
+    /**
+     * Encodes the image as JPEG with the specified quality.
+     */
+    private static byte[] encodeJpeg(BufferedImage image, int jpegQuality) throws Exception {
+        // Create JPEG encoder parameters with the quality setting.
+        Iterator writers = ImageIO.getImageWritersByFormatName("jpeg");
+        ImageWriter writer = (ImageWriter) writers.next();
+        try {
             ImageWriteParam param = writer.getDefaultWriteParam();
             param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
             param.setCompressionQuality(jpegQuality / 100.0f);
@@ -171,26 +360,16 @@ class Resampler {
             ImageOutputStream ios = ImageIO.createImageOutputStream(dstStream);
             writer.setOutput(ios);
 
-            IIOImage ioImage = new IIOImage(dstImage, null, null);
+            IIOImage ioImage = new IIOImage(image, null, null);
             writer.write(null, ioImage, param);
 
             // This is required, otherwise not all data might be written to our stream.
             ios.flush();
+            return dstStream.toByteArray();
+        } finally {
             // The Java documentation recommends disposing image readers and writers asap.
             writer.dispose();
-
-            // If the image saved as JPEG is smaller than the original, store it in the shape.
-            System.out.println(MessageFormat.format("Original size {0}, new size {1}.", originalBytes.length, dstStream.size()));
-            if (dstStream.size() < originalBytes.length) {
-                imageData.setImageBytes(dstStream.toByteArray());
-                return true;
-            }
-        } catch (Exception e) {
-            // Catch an exception, log an error and continue if cannot process one of the images for whatever reason.
-            System.out.println("Error processing an image, ignoring. " + e.getMessage());
         }
-
-        return false;
     }
 
     private static int getResampledImageType(int srcImageType) {
@@ -215,4 +394,85 @@ class Resampler {
         }
     }
 }
+
+/**
+ * An image to resample and all the shapes that use it.
+ */
+class ResampleJob {
+    String mKey;
+    byte[] mOriginalBytes;
+    int mWidthPixels;
+    int mHeightPixels;
+    final List<ImageData> mImages = new ArrayList<ImageData>();
+    volatile long mNanos;
+}
+
+/**
+ * The result of Resampler.resample running on several threads.
+ */
+class ResampleReport {
+    /**
+     * Gets the number of shapes in the document.
+     */
+    public int getShapeCount() {
+        return mShapeCount;
+    }
+
+    /**
+     * Gets the number of shapes whose image was replaced.
+     */
+    public int getResampledShapeCount() {
+        return mResampledShapeCount;
+    }
+
+    /**
+     * Gets the number of shapes whose image could not be read or resampled. These shapes keep their original image.
+     */
+    public int getFailedShapeCount() {
+        return mFailedShapeCount;
+    }
+
+    /**
+     * Gets the number of distinct images that were resampled.
+     */
+    public int getResampledImageCount() {
+        return mEntries.size();
+    }
+
+    /**
+     * Gets the total number of bytes saved in the document, counting every shape that uses an image.
+     */
+    public long getBytesSaved() {
+        return mBytesSaved;
+    }
+
+    void addShape() {
+        mShapeCount++;
+    }
+
+    void addFailedShapes(int shapeCount) {
+        mFailedShapeCount += shapeCount;
+    }
+
+    void add(ResampleJob job, int newSize) {
+        mResampledShapeCount += job.mImages.size();
+        mBytesSaved += (long) (job.mOriginalBytes.length - newSize) * job.mImages.size();
+        mEntries.add(MessageFormat.format("{0}x{1} px, used {2} times: {3} -> {4} bytes in {5} ms",
+                job.mWidthPixels, job.mHeightPixels, job.mImages.size(), job.mOriginalBytes.length, newSize, job.mNanos / 1000000));
+    }
+
+    public void print() {
+        for (String entry : mEntries)
+            System.out.println(entry);
+
+        System.out.println(MessageFormat.format("Resampled {0} distinct images in {1} of {2} shapes. Saved {3} bytes. Failed shapes: {4}.",
+                getResampledImageCount(), mResampledShapeCount, mShapeCount, mBytesSaved, mFailedShapeCount));
+    }
+
+    private int mShapeCount;
+    private int mResampledShapeCount;
+    private int mFailedShapeCount;
+    private long mBytesSaved;
+    private final List<String> mEntries = new ArrayList<String>();
+}
 //ExEnd:Resampler
\ No newline at end of file
@@ -0,0 +1,321 @@
+package com.aspose.words.examples.rendering_printing;
+
+import com.aspose.words.*;
+
+import java.io.*;
+import java.util.*;
+
+//ExStart:FontIndex
+
+/**
+ * A persistent index of the fonts in a set of folders, so a process does not have to
+ * scan thousands of font files before its first conversion.
+ * <p>
+ * The index records the family name, full name and version of every font face in a
+ * file, together with the modification time and size of the file. On load only new
+ * and changed files are scanned again, files which no longer exist are dropped, and
+ * the index file is rewritten if anything changed.
+ * <p>
+ * Instead of a FolderFontSource, which scans every file of the folders, a document gets
+ * a StreamFontSource for each file containing a font the document uses. Aspose.Words
+ * then only reads these files, when it needs them.
+ * <p>
+ * A loaded index is never modified, so it can be shared by all documents and threads.
+ * Every call of createFontSettings returns new font sources and a new FontSettings object.
+ */
+public class FontIndex {
+    private static final int FORMAT_VERSION = 1;
+    private static final String[] FONT_FILE_EXTENSIONS = {".ttf", ".ttc", ".otf", ".otc"};
+
+    /**
+     * Loads the index from the index file, updating it for fonts added, changed or removed
+     * since it was written. A missing or unreadable index file is created from scratch.
+     *
+     * @param indexFile      The file the index is stored in.
+     * @param fontFolders    The folders with the font files.
+     * @param scanSubfolders True to include the fonts in the subfolders of the font folders.
+     */
+    public static FontIndex load(File indexFile, String[] fontFolders, boolean scanSubfolders) throws Exception {
+        Map<String, FontFile> storedFiles = readIndexFile(indexFile);
+
+        List<File> files = new ArrayList<File>();
+        for (String fontFolder : fontFolders) {
+            collectFontFiles(new File(fontFolder), scanSubfolders, files);
+        }
+
+        boolean isChanged = storedFiles.size() != files.size();
+        Map<String, FontFile> fontFiles = new LinkedHashMap<String, FontFile>();
+        for (File file : files) {
+            String path = file.getAbsolutePath();
+            FontFile fontFile = storedFiles.get(path);
+            if (fontFile == null || fontFile.mLastModified != file.lastModified() || fontFile.mLength != file.length()) {
+                fontFile = scanFontFile(file);
+                isChanged = true;
+            }
+
+            fontFiles.put(path, fontFile);
+        }
+
+        if (isChanged) {
+            writeIndexFile(indexFile, fontFiles.values());
+        }
+
+        return new FontIndex(fontFiles.values());
+    }
+
+    private FontIndex(Collection<FontFile> fontFiles) {
+        mFontFiles = new ArrayList<FontFile>(fontFiles);
+        for (FontFile fontFile : mFontFiles) {
+            for (FontFace face : fontFile.mFaces) {
+                String key = face.mFamilyName.toLowerCase(Locale.ROOT);
+                List<FontFile> familyFiles = mFilesByFamily.get(key);
+                if (familyFiles == null) {
+                    familyFiles = new ArrayList<FontFile>();
+                    mFilesByFamily.put(key, familyFiles);
+                }
+                // A collection contains several faces of the same family, add the file only once.
+                if (!familyFiles.contains(fontFile)) {
+                    familyFiles.add(fontFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns font settings which provide the indexed fonts used by the document, plus the
+     * fonts of the additional families, e.g. the families used for font substitution.
+     */
+    public FontSettings createFontSettings(Document doc, String... additionalFamilies) {
+        Set<String> families = new HashSet<String>();
+        for (FontInfo fontInfo : (Iterable<FontInfo>) doc.getFontInfos()) {
+            families.add(fontInfo.getName().toLowerCase(Locale.ROOT));
+        }
+        for (String family : additionalFamilies) {
+            families.add(family.toLowerCase(Locale.ROOT));
+        }
+
+        // Several families may share a file, e.g. a font collection.
+        Set<FontFile> files = new LinkedHashSet<FontFile>();
+        for (String family : families) {
+            List<FontFile> familyFiles = mFilesByFamily.get(family);
+            if (familyFiles != null) {
+                files.addAll(familyFiles);
+            }
+        }
+
+        List<FontSourceBase> fontSources = new ArrayList<FontSourceBase>(files.size());
+        for (FontFile file : files) {
+            fontSources.add(new FontFileSource(file.mPath));
+        }
+
+        FontSettings fontSettings = new FontSettings();
+        fontSettings.setFontsSources(fontSources.toArray(new FontSourceBase[fontSources.size()]));
+        return fontSettings;
+    }
+
+    /**
+     * Returns the names of all indexed font families.
+     */
+    public Set<String> getFamilyNames() {
+        Set<String> familyNames = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+        for (FontFile fontFile : mFontFiles) {
+            for (FontFace face : fontFile.mFaces) {
+                familyNames.add(face.mFamilyName);
+            }
+        }
+
+        return familyNames;
+    }
+
+    public int getFontFileCount() {
+        return mFontFiles.size();
+    }
+
+    private static void collectFontFiles(File folder, boolean scanSubfolders, List<File> files) {
+        File[] children = folder.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        for (File child : children) {
+            if (child.isDirectory()) {
+                if (scanSubfolders) {
+                    collectFontFiles(child, true, files);
+                }
+            } else if (isFontFile(child.getName())) {
+                files.add(child);
+            }
+        }
+    }
+
+    private static boolean isFontFile(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : FONT_FILE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Reads the names of all faces in a font file. A file Aspose.Words cannot read is
+     * kept in the index without faces, so it is not scanned again until it changes.
+     */
+    private static FontFile scanFontFile(File file) throws IOException {
+        long lastModified = file.lastModified();
+        long length = file.length();
+        List<FontFace> faces = new ArrayList<FontFace>();
+        try {
+            MemoryFontSource source = new MemoryFontSource(readFile(file));
+            for (PhysicalFontInfo fontInfo : (Iterable<PhysicalFontInfo>) source.getAvailableFonts()) {
+                faces.add(new FontFace(fontInfo.getFontFamilyName(), fontInfo.getFullFontName(), fontInfo.getVersion()));
+            }
+        } catch (Exception e) {
+            System.out.println("Cannot read font file " + file + ": " + e.getMessage());
+        }
+
+        return new FontFile(file.getAbsolutePath(), lastModified, length, faces);
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        DataInputStream stream = new DataInputStream(new FileInputStream(file));
+        try {
+            stream.readFully(bytes);
+        } finally {
+            stream.close();
+        }
+
+        return bytes;
+    }
+
+    private static Map<String, FontFile> readIndexFile(File indexFile) {
+        Map<String, FontFile> fontFiles = new HashMap<String, FontFile>();
+        if (!indexFile.exists()) {
+            return fontFiles;
+        }
+
+        try {
+            DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+            try {
+                if (stream.readInt() != FORMAT_VERSION) {
+                    return fontFiles;
+                }
+
+                int fileCount = stream.readInt();
+                for (int i = 0; i < fileCount; i++) {
+                    String path = stream.readUTF();
+                    long lastModified = stream.readLong();
+                    long length = stream.readLong();
+                    int faceCount = stream.readInt();
+                    List<FontFace> faces = new ArrayList<FontFace>(faceCount);
+                    for (int j = 0; j < faceCount; j++) {
+                        faces.add(new FontFace(stream.readUTF(), stream.readUTF(), stream.readUTF()));
+                    }
+
+                    fontFiles.put(path, new FontFile(path, lastModified, length, faces));
+                }
+            } finally {
+                stream.close();
+            }
+        } catch (IOException e) {
+            // A damaged index is rebuilt.
+            fontFiles.clear();
+        }
+
+        return fontFiles;
+    }
+
+    /**
+     * Writes the index to a temporary file first, so other processes never read a partially written index.
+     */
+    private static void writeIndexFile(File indexFile, Collection<FontFile> fontFiles) throws IOException {
+        File folder = indexFile.getAbsoluteFile().getParentFile();
+        folder.mkdirs();
+        File tempFile = File.createTempFile("fontindex", ".tmp", folder);
+
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try {
+            stream.writeInt(FORMAT_VERSION);
+            stream.writeInt(fontFiles.size());
+            for (FontFile fontFile : fontFiles) {
+                stream.writeUTF(fontFile.mPath);
+                stream.writeLong(fontFile.mLastModified);
+                stream.writeLong(fontFile.mLength);
+                stream.writeInt(fontFile.mFaces.size());
+                for (FontFace face : fontFile.mFaces) {
+                    stream.writeUTF(face.mFamilyName);
+                    stream.writeUTF(face.mFullName);
+                    stream.writeUTF(face.mVersion);
+                }
+            }
+        } finally {
+            stream.close();
+        }
+
+        if (!tempFile.renameTo(indexFile)) {
+            indexFile.delete();
+            if (!tempFile.renameTo(indexFile)) {
+                tempFile.delete();
+                throw new IOException("Cannot write the font index " + indexFile);
+            }
+        }
+    }
+
+    /**
+     * Provides the data of one font file. The file is opened only when Aspose.Words needs the font.
+     */
+    private static class FontFileSource extends StreamFontSource {
+        FontFileSource(String path) {
+            mPath = path;
+        }
+
+        public InputStream openFontDataStream() throws Exception {
+            return new FileInputStream(mPath);
+        }
+
+        private final String mPath;
+    }
+
+    /**
+     * A font file and the faces it contains.
+     */
+    private static class FontFile {
+        FontFile(String path, long lastModified, long length, List<FontFace> faces) {
+            mPath = path;
+            mLastModified = lastModified;
+            mLength = length;
+            mFaces = faces;
+        }
+
+        final String mPath;
+        final long mLastModified;
+        final long mLength;
+        final List<FontFace> mFaces;
+    }
+
+    /**
+     * A font face of a font file. A font collection contains several faces.
+     */
+    private static class FontFace {
+        FontFace(String familyName, String fullName, String version) {
+            mFamilyName = familyName != null ? familyName : "";
+            mFullName = fullName != null ? fullName : "";
+            mVersion = version != null ? version : "";
+        }
+
+        final String mFamilyName;
+        final String mFullName;
+        final String mVersion;
+    }
+
+    /**
+     * Instance variables.
+     */
+    private final List<FontFile> mFontFiles;
+    // Font files by lower case family name.
+    private final Map<String, List<FontFile>> mFilesByFamily = new HashMap<String, List<FontFile>>();
+}
+//ExEnd:FontIndex
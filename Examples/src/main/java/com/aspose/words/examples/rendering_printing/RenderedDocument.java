@@ -19,6 +19,45 @@ public class RenderedDocument extends LayoutEntity {
         LinkLayoutMarkersToNodes(doc);
     }
 
+    /**
+     * Creates a new instance which only enumerates the pages of the document up front.
+     * The columns, lines, spans and other entities of a page are created when they are first accessed,
+     * and at most maxExpandedPages pages keep their entities in memory. When another page is expanded,
+     * the entities of the least recently used page are released and created again on the next access.
+     * <p>
+     * Lines and spans are linked to nodes when their page is expanded. Lines at the end of a page which belong
+     * to a paragraph ending on a later page are linked by looking ahead in the layout of the following pages,
+     * without expanding them, so GetLayoutEntitiesOfNode returns the same entities as in the default mode.
+     *
+     * @param doc              A document whose page layout model to enumerate.
+     * @param maxExpandedPages The maximum number of pages which keep their child entities in memory.
+     * @throws Exception
+     */
+    public RenderedDocument(Document doc, int maxExpandedPages) throws Exception {
+        if (maxExpandedPages < 1) {
+            throw new IllegalArgumentException("maxExpandedPages must be positive.");
+        }
+
+        mLayoutCollector = new LayoutCollector(doc);
+        mEnumerator = new LayoutEnumerator(doc);
+        mMaxExpandedPages = maxExpandedPages;
+        mExpandedPages = new java.util.LinkedHashMap<RenderedPage, Boolean>(16, 0.75f, true);
+
+        // Only create the pages, their content is enumerated on demand.
+        do {
+            AddChildEntity(mEnumerator);
+        } while (mEnumerator.moveNext());
+
+        // Map layout markers to nodes once, so the entities of each page can be linked when the page is expanded.
+        mLayoutObjectToNodeLookup = new java.util.HashMap<Object, Node>();
+        for (Node node : (Iterable<Node>) doc.getChildNodes(NodeType.ANY, true)) {
+            Object entity = mLayoutCollector.getEntity(node);
+            if (entity != null) {
+                mLayoutObjectToNodeLookup.put(entity, node);
+            }
+        }
+    }
+
     /**
      * Provides access to the pages of a document.
      */
@@ -40,29 +79,246 @@ public class RenderedDocument extends LayoutEntity {
             return new LayoutCollection<LayoutEntity>(mChildEntities);
         }
 
-        java.util.ArrayList<LayoutEntity> entities = new java.util.ArrayList<LayoutEntity>();
+        if (IsLazy()) {
+            return GetLayoutEntitiesOfNodeFromPages(node);
+        }
+
+        java.util.ArrayList<LayoutEntity> entities = mNodeToEntitiesLookup.get(node);
+        if (entities == null) {
+            entities = new java.util.ArrayList<LayoutEntity>();
+        }
+
+        return new LayoutCollection<LayoutEntity>(entities);
+    }
+
+    /**
+     * Maps every node to the layout entities which correspond to it, so GetLayoutEntitiesOfNode
+     * does not have to scan the whole layout tree for each node. Rows are also added under their table.
+     * Nodes are compared by reference.
+     */
+    private void BuildNodeToEntitiesIndex() {
+        // Retrieve all entities from the layout document (inversion of LayoutEntityType.None).
         for (LayoutEntity entity : GetChildEntities(~LayoutEntityType.NONE, true)) {
+            Node parentNode;
             try {
-                // Retrieve all entities from the layout document (inversion of LayoutEntityType.None).
+                parentNode = entity.getParentNode();
+            } catch (RuntimeException ex) {
+                // Some entities, such as those in headers and footers, cannot be mapped to a node.
+                continue;
+            }
+
+            AddToNodeToEntitiesIndex(parentNode, entity);
+
+            if (entity.getType() == LayoutEntityType.ROW && parentNode != null) {
+                AddToNodeToEntitiesIndex(((Row) parentNode).getParentTable(), entity);
+            }
+        }
+    }
+
+    private void AddToNodeToEntitiesIndex(Node node, LayoutEntity entity) {
+        if (node == null) {
+            return;
+        }
+
+        java.util.ArrayList<LayoutEntity> entities = mNodeToEntitiesLookup.get(node);
+        if (entities == null) {
+            entities = new java.util.ArrayList<LayoutEntity>();
+            mNodeToEntitiesLookup.put(node, entities);
+        }
+
+        entities.add(entity);
+    }
+
+    /**
+     * Scans only the pages the node is found on. Used by the lazy mode, which has no index of the whole layout.
+     */
+    private LayoutCollection<LayoutEntity> GetLayoutEntitiesOfNodeFromPages(Node node) {
+        java.util.ArrayList<LayoutEntity> entities = new java.util.ArrayList<LayoutEntity>();
+        int startPage;
+        int endPage;
+        try {
+            startPage = mLayoutCollector.getStartPageIndex(node);
+            endPage = mLayoutCollector.getEndPageIndex(node);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to get the pages of the node.", ex);
+        }
 
-                if (entity.getParentNode() == node) {
+        // Pages are 1-based, 0 means the node is not in the layout.
+        for (int pageIndex = Math.max(startPage, 1); pageIndex <= endPage && pageIndex <= mChildEntities.size(); pageIndex++) {
+            for (LayoutEntity entity : mChildEntities.get(pageIndex - 1).GetChildEntities(~LayoutEntityType.NONE, true)) {
+                Node parentNode;
+                try {
+                    parentNode = entity.getParentNode();
+                } catch (RuntimeException ex) {
+                    // Some entities, such as those in headers and footers, cannot be mapped to a node.
+                    continue;
+                }
+
+                if (parentNode == node
+                        || (entity.getType() == LayoutEntityType.ROW && parentNode != null && ((Row) parentNode).getParentTable() == node)) {
                     entities.add(entity);
                 }
+            }
+        }
+
+        return new LayoutCollection<LayoutEntity>(entities);
+    }
+
+    private boolean IsLazy() {
+        return mExpandedPages != null;
+    }
+
+    /**
+     * Creates the child entities of the page if they are not in memory. Called by RenderedPage
+     * before its children are accessed. Does nothing if the whole layout was enumerated up front.
+     */
+    final void EnsurePageExpanded(RenderedPage page) {
+        // Get marks the page as the most recently used one.
+        if (!IsLazy() || mExpandedPages.get(page) != null) {
+            return;
+        }
+
+        try {
+            mEnumerator.setCurrent(page.getLayoutObject());
+            if (mEnumerator.moveFirstChild()) {
+                ProcessLayoutElements(page);
+                mEnumerator.moveParent();
+            }
+        } catch (Exception ex) {
+            page.mChildEntities.clear();
+            throw new IllegalStateException("Unable to enumerate the layout of page " + page.getPageIndex() + ".", ex);
+        }
+
+        // Mark the page as expanded before linking, which accesses the children of the page again.
+        mExpandedPages.put(page, Boolean.TRUE);
+        LinkLayoutMarkersOfPage(page);
 
-                if (entity.getType() == LayoutEntityType.ROW) {
-                    RenderedRow row = (RenderedRow) entity;
-                    if (row.getTable() == node) {
-                        entities.add(entity);
+        if (mExpandedPages.size() > mMaxExpandedPages) {
+            // Release the entities of the least recently used page.
+            java.util.Iterator<RenderedPage> eldest = mExpandedPages.keySet().iterator();
+            eldest.next().mChildEntities.clear();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Links the lines and spans of a single page to their nodes, the same way LinkLayoutMarkersToNodes
+     * does it for the whole document.
+     */
+    private void LinkLayoutMarkersOfPage(RenderedPage page) {
+        int[] storyTypes = {LayoutEntityType.COLUMN, LayoutEntityType.COMMENT};
+        for (int type : storyTypes) {
+            java.util.ArrayList<RenderedLine> collectedLines = new java.util.ArrayList<RenderedLine>();
+            for (LayoutEntity story : page.GetChildEntities(type, false)) {
+                for (LayoutEntity le : story.GetChildEntities(LayoutEntityType.LINE, true)) {
+                    RenderedLine line = (RenderedLine) le;
+                    collectedLines.add(line);
+                    for (RenderedSpan span : line.getSpans()) {
+                        Node node = mLayoutObjectToNodeLookup.get(span.getLayoutObject());
+                        if (IsLineMarker(span.getKind())) {
+                            SetParentNodeOfLines(collectedLines, node);
+                            collectedLines = new java.util.ArrayList<RenderedLine>();
+                        } else if (node != null) {
+                            span.setParentNode(node);
+                        }
                     }
                 }
+            }
+
+            // The remaining lines belong to a paragraph or row which ends on a later page.
+            if (!collectedLines.isEmpty()) {
+                try {
+                    SetParentNodeOfLines(collectedLines, mLayoutObjectToNodeLookup.get(FindNextLineMarker(page, type)));
+                } catch (Exception ex) {
+                    throw new IllegalStateException("Unable to enumerate the layout after page " + page.getPageIndex() + ".", ex);
+                }
+            }
+        }
+    }
 
-            } catch (RuntimeException ex) {
+    private static void SetParentNodeOfLines(java.util.ArrayList<RenderedLine> lines, Node markerNode) {
+        Node lineNode = null;
+        if (markerNode != null && markerNode.getNodeType() == NodeType.PARAGRAPH) {
+            lineNode = markerNode;
+        } else if (markerNode != null && markerNode.getNodeType() == NodeType.ROW) {
+            lineNode = ((Row) markerNode).getLastCell().getLastParagraph();
+        }
 
-                throw ex;
+        if (lineNode != null) {
+            for (RenderedLine line : lines) {
+                line.setParentNode(lineNode);
             }
         }
+    }
 
-        return new LayoutCollection<LayoutEntity>(entities);
+    private static boolean IsLineMarker(String kind) {
+        return kind.equals("PARAGRAPH") || kind.equals("ROW") || kind.equals("CELL") || kind.equals("SECTION");
+    }
+
+    /**
+     * Returns the layout object of the first paragraph, row, cell or section marker in the stories of the
+     * specified type on the pages after the page, or null if there is none. This is the marker the default mode
+     * links the trailing lines of the page to. Only the layout enumerator is used, no page is expanded.
+     */
+    private Object FindNextLineMarker(RenderedPage page, int storyType) throws Exception {
+        for (int pageIndex = mChildEntities.indexOf(page) + 1; pageIndex < mChildEntities.size(); pageIndex++) {
+            mEnumerator.setCurrent(mChildEntities.get(pageIndex).getLayoutObject());
+            if (!mEnumerator.moveFirstChild()) {
+                continue;
+            }
+
+            do {
+                if (mEnumerator.getType() == storyType && mEnumerator.moveFirstChild()) {
+                    Object marker;
+                    try {
+                        marker = FindFirstLineMarker();
+                    } finally {
+                        mEnumerator.moveParent();
+                    }
+
+                    if (marker != null) {
+                        return marker;
+                    }
+                }
+            } while (mEnumerator.moveNext());
+        }
+
+        return null;
+    }
+
+    /**
+     * Walks the current entity, its following siblings and their descendants in document order and returns the
+     * layout object of the first marker span of a line, or null if there is none.
+     */
+    private Object FindFirstLineMarker() throws Exception {
+        do {
+            if (mEnumerator.getType() == LayoutEntityType.LINE) {
+                if (mEnumerator.moveFirstChild()) {
+                    try {
+                        do {
+                            if (mEnumerator.getType() == LayoutEntityType.SPAN && IsLineMarker(mEnumerator.getKind())) {
+                                return mEnumerator.getCurrent();
+                            }
+                        } while (mEnumerator.moveNext());
+                    } finally {
+                        mEnumerator.moveParent();
+                    }
+                }
+            } else if (mEnumerator.moveFirstChild()) {
+                Object marker;
+                try {
+                    marker = FindFirstLineMarker();
+                } finally {
+                    mEnumerator.moveParent();
+                }
+
+                if (marker != null) {
+                    return marker;
+                }
+            }
+        } while (mEnumerator.moveNext());
+
+        return null;
     }
 
     private void ProcessLayoutElements(LayoutEntity current) throws Exception {
@@ -135,6 +391,8 @@ public class RenderedDocument extends LayoutEntity {
                     break;
             }
         }
+
+        BuildNodeToEntitiesIndex();
     }
 
     private java.util.ArrayList<RenderedLine> GetLinesOfNode(Node node) throws Exception {
@@ -150,6 +408,11 @@ public class RenderedDocument extends LayoutEntity {
 
     private LayoutCollector mLayoutCollector;
     private LayoutEnumerator mEnumerator;
+    // Used only by the lazy mode.
+    private int mMaxExpandedPages;
+    private java.util.LinkedHashMap<RenderedPage, Boolean> mExpandedPages;
+    private java.util.HashMap<Object, Node> mLayoutObjectToNodeLookup;
+    private java.util.IdentityHashMap<Node, java.util.ArrayList<LayoutEntity>> mNodeToEntitiesLookup = new java.util.IdentityHashMap<Node, java.util.ArrayList<LayoutEntity>>();
     private static java.util.HashMap<Object, java.util.ArrayList<RenderedLine>> mLayoutToLinesLookup = new java.util.HashMap<Object, java.util.ArrayList<RenderedLine>>();
     private static java.util.HashMap<Object, RenderedSpan> mLayoutToSpanLookup = new java.util.HashMap<Object, RenderedSpan>();
 }
@@ -1,5 +1,6 @@
 package com.aspose.words.examples.rendering_printing;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -23,6 +24,7 @@ public class WorkingWithFontSources {
 		SetMultipleFontsFolder(dataDir);
 		SetFontsFolderWithPriority(dataDir);
 		GetAllAvailableFonts(dataDir);
+		SetFontsFromIndex(dataDir);
 	}
 
 	public static void SetFontsFolder(String dataDir) throws Exception {
@@ -123,4 +125,18 @@ public class WorkingWithFontSources {
 		}
 		// ExEnd: GetAllAvailableFonts
 	}
+
+	public static void SetFontsFromIndex(String dataDir) throws Exception {
+		// ExStart: SetFontsFromIndex
+		// Scanning large font folders is slow, so the fonts are indexed once and the index is stored in a file.
+		// Later runs only scan the font files which were added or changed since then.
+		FontIndex fontIndex = FontIndex.load(new File(dataDir, "MyFonts.index"),
+				new String[] { "C:\\MyFonts\\" }, true);
+
+		// The index can be shared by all documents. Each document gets font sources for the fonts it uses only.
+		Document doc = new Document(dataDir + "Rendering.doc");
+		doc.setFontSettings(fontIndex.createFontSettings(doc, "Times New Roman"));
+		doc.save(dataDir + "Rendering.SetFontsFromIndex_out.pdf");
+		// ExEnd: SetFontsFromIndex
+	}
 }
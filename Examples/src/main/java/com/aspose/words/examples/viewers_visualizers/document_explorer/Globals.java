@@ -107,6 +107,12 @@ public class Globals {
      */
     static Document mDocument;
 
+    /**
+     * Guards all access to the loaded document. Tree nodes and node text are loaded on background threads,
+     * while nodes are removed on the event dispatch thread.
+     */
+    static final Object mDocumentLock = new Object();
+
     /**
      * Reference for current Tree Model
      */
@@ -11,28 +11,48 @@ import com.aspose.words.*;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Base class used to provide GUI representation for document nodes.
  */
 public class Item {
+    /**
+     * The number of child nodes loaded at once. Further child nodes are loaded when the user scrolls to them.
+     */
+    static final int PAGE_SIZE = 200;
+
+    /**
+     * The user object of the tree node shown in place of the child nodes which are not loaded yet.
+     */
+    static final String LOADING_PLACEHOLDER = "Loading...";
+
     private Node mNode;
     private DefaultMutableTreeNode mTreeNode;
     private ImageIcon mIcon;
+    private String mName;
+    private String mIconName;
+    // The first child node which is not in the tree yet, null when all child nodes are loaded.
+    private Node mNextChild;
+    // Whether a page of child nodes is being loaded. Only used on the event dispatch thread.
+    private boolean mIsLoading;
 
-    private static ArrayList<Field> mControlCharFields;
+    // The control characters and their human readable form.
+    private static char[] mControlChars;
+    private static String[] mControlCharNames;
     private static Map<Integer, String> mNodeTypes;
     private static Map<Integer, String> mHeaderFooterTypes;
-    private static Map<String, String> mItemSet;
-    private static ArrayList mIconNames = new ArrayList();
+    private static Map<String, Constructor<?>> mItemConstructors;
+    // Icons by name, shared by all items. Only used on the event dispatch thread.
+    private static final Map<String, ImageIcon> mIcons = new HashMap<String, ImageIcon>();
 
     /**
      * Creates Item for the supplied document node.
@@ -59,20 +79,15 @@ public class Item {
      * The text of the corresponding document node.
      */
     public String getText() throws Exception {
-        String text = mNode.getText();
+        String text;
+        synchronized (Globals.mDocumentLock) {
+            text = mNode.getText();
+        }
 
         // Most control characters are converted to human readable form.
         // E.g. [!PageBreak!], [!Cell!], etc.
-        for (Field fieldInfo : mControlCharFields) {
-            if (fieldInfo.getType() == char.class && Modifier.isStatic(fieldInfo.getModifiers())) {
-                Character ch = fieldInfo.getChar(null);
-
-                // Represent a paragraph break using the special formatting marker. This makes the text easier to read.
-                if (fieldInfo.getName().equals("PARAGRAPH_BREAK_CHAR"))
-                    text = text.replace(ch.toString(), "?" + "\n"); // JTextArea lines are separated using simple "\n" character and not using system independent new line character.
-                else
-                    text = text.replace(ch.toString(), java.text.MessageFormat.format("[!{0}!]", fieldInfo.getName().replace("_CHAR", "")));
-            }
+        for (int i = 0; i < mControlChars.length; i++) {
+            text = text.replace(String.valueOf(mControlChars[i]), mControlCharNames[i]);
         }
 
         // All break chars should be supplemented with line feeds
@@ -83,28 +98,34 @@ public class Item {
     /**
      * Creates a TreeNode for this item to be displayed in the Document Explorer TreeView control.
      */
-    public DefaultMutableTreeNode getTreeNode() throws Exception {
+    public DefaultMutableTreeNode getTreeNode() {
         if (mTreeNode == null) {
             mTreeNode = new DefaultMutableTreeNode(this);
-            if (!mIconNames.contains(getIconName())) {
-                mIconNames.add(getIconName());
-            }
-
-            if (mNode instanceof CompositeNode && ((CompositeNode) mNode).getChildNodes().getCount() > 0) {
-                mTreeNode.add(new DefaultMutableTreeNode("#dummy"));
+            if (mNextChild != null) {
+                mTreeNode.add(new DefaultMutableTreeNode(LOADING_PLACEHOLDER));
             }
         }
         return mTreeNode;
     }
 
+    /**
+     * Reads everything the tree displays for this item from the document, so painting the tree
+     * does not access the document. Called by createItem while the document lock is held.
+     */
+    protected void prepare() throws Exception {
+        mName = getName();
+        mIconName = getIconName();
+        mNextChild = (mNode instanceof CompositeNode) ? ((CompositeNode) mNode).getFirstChild() : null;
+    }
+
     /**
      * Returns the icon to display in the Document Explorer TreeView control.
      */
     public ImageIcon getIcon() throws Exception {
         if (mIcon == null) {
-            mIcon = loadIcon(getIconName());
+            mIcon = getSharedIcon(mIconName);
             if (mIcon == null)
-                mIcon = loadIcon("Node");
+                mIcon = getSharedIcon("Node");
         }
         return mIcon;
     }
@@ -118,23 +139,109 @@ public class Item {
     }
 
     /**
-     * Provides lazy on-expand loading of underlying tree nodes.
+     * Provides lazy on-expand loading of underlying tree nodes. Only the first page of child nodes is loaded.
      */
-    public void onExpand() throws Exception {
-        if ("#dummy".equals(getTreeNode().getFirstChild().toString())) {
-            getTreeNode().removeAllChildren();
-            Globals.mTreeModel.reload(getTreeNode());
-            for (Object o : ((CompositeNode) mNode).getChildNodes()) {
-                Node n = (Node) o;
-                getTreeNode().add(Item.createItem(n).getTreeNode());
+    public void onExpand() {
+        if (getTreeNode().getChildCount() == 1 && isPlaceholder(getTreeNode().getFirstChild())) {
+            loadNextPage();
+        }
+    }
+
+    /**
+     * Loads the next page of child nodes on a background thread and shows them in place of the placeholder,
+     * so the user interface stays responsive for nodes with thousands of child nodes. Does nothing when all
+     * child nodes are loaded or a page is being loaded already.
+     */
+    public void loadNextPage() {
+        if (mNextChild == null || mIsLoading) {
+            return;
+        }
+
+        mIsLoading = true;
+        new SwingWorker<List<Item>, Void>() {
+            protected List<Item> doInBackground() throws Exception {
+                return loadPage(PAGE_SIZE);
             }
+
+            protected void done() {
+                mIsLoading = false;
+                // The tree was replaced while the page was loading, e.g. another document was opened.
+                if (getTreeNode().getRoot() != Globals.mRootNode) {
+                    return;
+                }
+
+                try {
+                    addPage(get());
+                } catch (ExecutionException e) {
+                    new ErrorDialog(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (Exception e) {
+                    new ErrorDialog(e);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Creates the items for at most pageSize of the child nodes which are not loaded yet.
+     * Does not change the tree, so it can be called on a background thread.
+     */
+    List<Item> loadPage(int pageSize) throws Exception {
+        List<Item> items = new ArrayList<Item>();
+        synchronized (Globals.mDocumentLock) {
+            Node child = mNextChild;
+            while (child != null && items.size() < pageSize) {
+                items.add(createItem(child));
+                child = child.getNextSibling();
+            }
+            mNextChild = child;
+        }
+        return items;
+    }
+
+    /**
+     * Adds the tree nodes of the loaded items before the placeholder, and removes the placeholder when
+     * all child nodes are loaded. Must be called on the event dispatch thread.
+     */
+    void addPage(List<Item> items) {
+        DefaultMutableTreeNode treeNode = getTreeNode();
+        DefaultMutableTreeNode placeholder = (DefaultMutableTreeNode) treeNode.getLastChild();
+        int firstIndex = treeNode.getChildCount() - 1;
+
+        int[] indices = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            treeNode.insert(items.get(i).getTreeNode(), firstIndex + i);
+            indices[i] = firstIndex + i;
+        }
+
+        // A single event for the whole page, the tree updates its layout only once.
+        Globals.mTreeModel.nodesWereInserted(treeNode, indices);
+        if (mNextChild == null) {
+            Globals.mTreeModel.removeNodeFromParent(placeholder);
+        }
+    }
+
+    /**
+     * Returns whether the tree node stands for child nodes which are not loaded yet.
+     */
+    static boolean isPlaceholder(Object treeNode) {
+        return treeNode instanceof DefaultMutableTreeNode
+                && ((DefaultMutableTreeNode) treeNode).getUserObject() == LOADING_PLACEHOLDER;
+    }
+
+    /**
+     * Returns the icon with the specified name, loading it only once.
+     */
+    private static ImageIcon getSharedIcon(String iconName) {
+        if (!mIcons.containsKey(iconName)) {
+            mIcons.put(iconName, loadIcon(iconName));
         }
+        return mIcons.get(iconName);
     }
 
     /**
      * Loads and returns an icon from the assembly resource stream.
      */
-    private ImageIcon loadIcon(String iconName) {
+    private static ImageIcon loadIcon(String iconName) {
         java.net.URL imgURL = MainForm.class.getResource("images/" + iconName + ".gif");
         if (imgURL != null)
             return new ImageIcon(imgURL);
@@ -146,14 +253,16 @@ public class Item {
      * Removes this node from the document and the tree.
      */
     public void remove() throws Exception {
-        if (this.isRemovable()) {
+        synchronized (Globals.mDocumentLock) {
+            if (!this.isRemovable()) {
+                return;
+            }
             mNode.remove();
-            TreeNode parent = mTreeNode.getParent();
-            mTreeNode.removeFromParent();
-            Globals.mTreeModel.reload(parent);
-            TreePath path = new TreePath(Globals.mRootNode);
-            Globals.mTree.setSelectionPath(path);
         }
+
+        Globals.mTreeModel.removeNodeFromParent(mTreeNode);
+        TreePath path = new TreePath(Globals.mRootNode);
+        Globals.mTree.setSelectionPath(path);
     }
 
     /**
@@ -165,30 +274,50 @@ public class Item {
     }
 
     /**
-     * Static ctor.
+     * Static ctor. All reflection is done here once, the tables are then only read.
      */
     static {
-        // Populate a list of node types along with their class implementation.
-        mItemSet = new HashMap<String, String>();
+        // Populate a map of node types along with the constructor of their class implementation.
+        mItemConstructors = new HashMap<String, Constructor<?>>();
         for (Class itemClass : DocumentItems.class.getDeclaredClasses()) {
             try {
                 String nodeTypeString = (String) itemClass.getField("NODE_TYPE_STRING").get(null);
-                mItemSet.put(nodeTypeString, itemClass.getName());
+                mItemConstructors.put(nodeTypeString, itemClass.getConstructor(DocumentItems.class, Node.class));
             } catch (Exception e) {
                 // IllegalAccessException, NoSuchFieldException or NoSuchMethodException - skip such exceptions if there are any.
             }
         }
 
-        // Fill a list containing the information of each control char.
-        mControlCharFields = new ArrayList<Field>();
+        // Fill the tables of the control chars and their human readable form.
+        List<Character> controlChars = new ArrayList<Character>();
+        List<String> controlCharNames = new ArrayList<String>();
         Field[] fields = ControlChar.class.getFields();
         for (Field fieldInfo : fields) {
             if (fieldInfo.getType() == char.class && Modifier.isStatic(fieldInfo.getModifiers())) {
-                if (!fieldInfo.getName().equals("SPACE_CHAR"))
-                    mControlCharFields.add(fieldInfo);
+                if (fieldInfo.getName().equals("SPACE_CHAR"))
+                    continue;
+
+                try {
+                    controlChars.add(fieldInfo.getChar(null));
+                } catch (IllegalAccessException e) {
+                    // Skip any invalid fields.
+                    continue;
+                }
+
+                // Represent a paragraph break using the special formatting marker. This makes the text easier to read.
+                if (fieldInfo.getName().equals("PARAGRAPH_BREAK_CHAR"))
+                    controlCharNames.add("?" + "\n"); // JTextArea lines are separated using simple "\n" character and not using system independent new line character.
+                else
+                    controlCharNames.add(java.text.MessageFormat.format("[!{0}!]", fieldInfo.getName().replace("_CHAR", "")));
             }
         }
 
+        mControlChars = new char[controlChars.size()];
+        for (int i = 0; i < mControlChars.length; i++) {
+            mControlChars[i] = controlChars.get(i);
+        }
+        mControlCharNames = controlCharNames.toArray(new String[controlCharNames.size()]);
+
         // Map node type integer values to their equivalent string name.
         mNodeTypes = new HashMap<Integer, String>();
         Field[] nodeTypefields = NodeType.class.getFields();
@@ -221,24 +350,22 @@ public class Item {
     }
 
     /**
-     * Item class factory implementation.
+     * Item class factory implementation. The caller must hold the document lock if the document is shown in the tree.
      */
-    public static Item createItem(Node node) throws ClassNotFoundException, NoSuchMethodException,
-            IllegalAccessException, InvocationTargetException,
-            InstantiationException {
-        String typeName = getNodeTypeString(node);
-        if (mItemSet.containsKey(typeName))
-            return (Item) Class.forName(mItemSet.get(typeName)).
-                    getConstructor(DocumentItems.class, Node.class).
-                    newInstance(null, node);
-        else
-            return new Item(node);
+    public static Item createItem(Node node) throws Exception {
+        Constructor<?> constructor = mItemConstructors.get(getNodeTypeString(node));
+        Item item = (constructor != null) ? (Item) constructor.newInstance(null, node) : new Item(node);
+        item.prepare();
+        return item;
     }
 
     /**
      * Object.toString method used by Tree.
      */
     public String toString() {
+        if (mName != null)
+            return mName;
+
         // Introduced non-checked RuntimeException on purpose to not change Object.toString() signature
         try {
             return getName();
@@ -11,6 +11,8 @@ import com.aspose.words.Document;
 import com.aspose.words.License;
 
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeSelectionEvent;
 import javax.swing.event.TreeSelectionListener;
@@ -20,6 +22,7 @@ import java.awt.*;
 import java.awt.event.*;
 import java.io.File;
 import java.util.Enumeration;
+import java.util.concurrent.ExecutionException;
 
 /**
  * The main form of the DocumentExplorer demo.
@@ -35,6 +38,9 @@ public class Main implements TreeWillExpandListener, TreeSelectionListener, KeyL
 
     String imgPath = com.aspose.words.examples.Utils.getDataDir(DocumentExplorer.class) + "images" + File.separator;
 
+    // Loads the text of the selected node, null if no text is being loaded.
+    private SwingWorker<String, Void> mTextLoader;
+
     public Main() throws Exception {
 
         // Search for an Aspose.Words license in the application directory.
@@ -142,6 +148,13 @@ public class Main implements TreeWillExpandListener, TreeSelectionListener, KeyL
             }
         });
 
+        // The viewport changes when the tree is scrolled or grows.
+        Globals.mMainForm.treeScrollPane.getViewport().addChangeListener(new ChangeListener() {
+            public void stateChanged(ChangeEvent e) {
+                onTreeViewChanged();
+            }
+        });
+
         Globals.mMainForm.setVisible(true);
     }
 
@@ -151,69 +164,130 @@ public class Main implements TreeWillExpandListener, TreeSelectionListener, KeyL
 
     /**
      * Opens a document with the name and format provided in a standard Save As
-     * dialog.
+     * dialog. The document is loaded on a background thread, so the window stays
+     * responsive while a large document is loaded.
      */
     private void onOpen() {
+        final String fileName = Dialogs.openDocument();
+        if ("".equals(fileName)) {
+            return;
+        }
+
+        Globals.mMainForm.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Item, Void>() {
+            protected Item doInBackground() throws Exception {
+                // The document is not shown yet, so no other thread accesses it.
+                return Item.createItem(new Document(fileName));
+            }
 
-        try {
-            String fileName = Dialogs.openDocument();
-            if (!"".equals(fileName)) {
-                Globals.mMainForm.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-                Globals.mDocument = new Document(fileName);
-
-                Globals.mMainForm.setTitle(Globals.APPLICATION_TITLE + " - " + fileName);
-
-                Globals.mRootNode = Item.createItem(Globals.mDocument).getTreeNode();
-                Globals.mTreeModel = new DefaultTreeModel(Globals.mRootNode);
-                Globals.mTree = new JTree(Globals.mTreeModel);
-                Globals.mTree.setExpandsSelectedPaths(false);
-                Globals.mTree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
-                Globals.mTree.setCellRenderer(new OurCellRenderer());
-                Globals.mTree.setShowsRootHandles(true);
-                Globals.mTree.addTreeWillExpandListener(this);
-                Globals.mTree.addTreeSelectionListener(this);
-                Globals.mTree.addKeyListener(this);
-                Globals.mMainForm.treeScrollPane.setViewportView(Globals.mTree);
-                TreePath path = new TreePath(Globals.mRootNode);
-                ((Item) Globals.mRootNode.getUserObject()).onExpand();
-                Globals.mTree.expandPath(path);
-                Globals.mTree.setSelectionPath(path);
-
-                // Enable all toolbar buttons and menu items
-                Globals.mMainForm.menuSaveAs.setEnabled(true);
-                Globals.mMainForm.menuExpandAll.setEnabled(true);
-                Globals.mMainForm.menuCollapseAll.setEnabled(true);
-                Globals.mMainForm.toolSaveAs.setEnabled(true);
-                Globals.mMainForm.toolExpandAll.setEnabled(true);
-                Globals.mMainForm.toolCollapseAll.setEnabled(true);
+            protected void done() {
+                try {
+                    showDocument(fileName, get());
+                } catch (ExecutionException e) {
+                    new ErrorDialog(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (Exception e) {
+                    new ErrorDialog(e);
+                } finally {
+                    // Set the cursor back to normal even if an exception occurs.
+                    Globals.mMainForm.setCursor(null);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * Shows the tree of the loaded document. Only the first page of the child nodes
+     * of the document is loaded, further nodes are loaded when they are expanded or
+     * scrolled into view.
+     */
+    private void showDocument(String fileName, Item rootItem) {
+        Globals.mDocument = (Document) rootItem.getNode();
+
+        Globals.mMainForm.setTitle(Globals.APPLICATION_TITLE + " - " + fileName);
+
+        Globals.mRootNode = rootItem.getTreeNode();
+        Globals.mTreeModel = new DefaultTreeModel(Globals.mRootNode);
+        Globals.mTree = new JTree(Globals.mTreeModel);
+        Globals.mTree.setExpandsSelectedPaths(false);
+        Globals.mTree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
+        Globals.mTree.setCellRenderer(new OurCellRenderer());
+        Globals.mTree.setShowsRootHandles(true);
+        // All rows have the same height, so the tree does not measure every row of a large document.
+        Globals.mTree.setRowHeight(Globals.mTree.getRowHeight() > 0 ? Globals.mTree.getRowHeight() : 18);
+        Globals.mTree.setLargeModel(true);
+        Globals.mTree.addTreeWillExpandListener(this);
+        Globals.mTree.addTreeSelectionListener(this);
+        Globals.mTree.addKeyListener(this);
+        Globals.mMainForm.treeScrollPane.setViewportView(Globals.mTree);
+        TreePath path = new TreePath(Globals.mRootNode);
+        rootItem.onExpand();
+        Globals.mTree.expandPath(path);
+        Globals.mTree.setSelectionPath(path);
+
+        // Enable all toolbar buttons and menu items
+        Globals.mMainForm.menuSaveAs.setEnabled(true);
+        Globals.mMainForm.menuExpandAll.setEnabled(true);
+        Globals.mMainForm.menuCollapseAll.setEnabled(true);
+        Globals.mMainForm.toolSaveAs.setEnabled(true);
+        Globals.mMainForm.toolExpandAll.setEnabled(true);
+        Globals.mMainForm.toolCollapseAll.setEnabled(true);
+    }
+
+    /**
+     * Loads the next page of child nodes for every placeholder which is scrolled into view.
+     */
+    private void onTreeViewChanged() {
+        JTree tree = Globals.mTree;
+        if (tree == null || tree.getRowCount() == 0) {
+            return;
+        }
+
+        Rectangle visibleRect = tree.getVisibleRect();
+        int firstRow = tree.getClosestRowForLocation(visibleRect.x, visibleRect.y);
+        int lastRow = tree.getClosestRowForLocation(visibleRect.x, visibleRect.y + visibleRect.height);
+        for (int row = firstRow; row <= lastRow; row++) {
+            TreeNode node = (TreeNode) tree.getPathForRow(row).getLastPathComponent();
+            if (Item.isPlaceholder(node)) {
+                ((Item) ((DefaultMutableTreeNode) node.getParent()).getUserObject()).loadNextPage();
             }
-        } catch (Exception e) {
-            new ErrorDialog(e);
-        } finally {
-            // Set the cursor back to normal even if an exception occurs.
-            Globals.mMainForm.setCursor(null);
         }
     }
 
     /**
      * Saves the document with the name and format provided in standard Save As
-     * dialog.
+     * dialog. The document is saved on a background thread, so the window stays
+     * responsive while a large document is saved.
      */
     private void onSaveAs() {
-        String fileName = Dialogs.saveDocument();
-        if ("".equals(fileName) || Globals.mDocument == null) {
+        final String fileName = Dialogs.saveDocument();
+        final Document document = Globals.mDocument;
+        if ("".equals(fileName) || document == null) {
             return;
         }
+
         Globals.mMainForm.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Void, Void>() {
+            protected Void doInBackground() throws Exception {
+                // Pages of child nodes and the text of the selected node may be loaded at the same time.
+                synchronized (Globals.mDocumentLock) {
+                    document.save(fileName);
+                }
+                return null;
+            }
 
-        try {
-            Globals.mDocument.save(fileName);
-        } catch (Exception e) {
-            new ErrorDialog(e);
-        } finally {
-            // Set the cursor back to normal even if an exception occurs.
-            Globals.mMainForm.setCursor(null);
-        }
+            protected void done() {
+                try {
+                    get();
+                } catch (ExecutionException e) {
+                    new ErrorDialog(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (Exception e) {
+                    new ErrorDialog(e);
+                } finally {
+                    // Set the cursor back to normal even if an exception occurs.
+                    Globals.mMainForm.setCursor(null);
+                }
+            }
+        }.execute();
     }
 
     /**
@@ -268,12 +342,8 @@ public class Main implements TreeWillExpandListener, TreeSelectionListener, KeyL
      */
     public void treeWillExpand(TreeExpansionEvent event) throws ExpandVetoException {
         DefaultMutableTreeNode node = (DefaultMutableTreeNode) event.getPath().getLastPathComponent();
-        if (node != null) {
-            try {
-                ((Item) node.getUserObject()).onExpand();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        if (node != null && node.getUserObject() instanceof Item) {
+            ((Item) node.getUserObject()).onExpand();
         }
     }
 
@@ -282,7 +352,8 @@ public class Main implements TreeWillExpandListener, TreeSelectionListener, KeyL
 
     /**
      * Informs Item class, which provides GUI representation of a document node,
-     * that the corresponding TreeNode was selected.
+     * that the corresponding TreeNode was selected. The text of the node is loaded
+     * on a background thread, the text of a whole document can take some time.
      */
     public void valueChanged(TreeSelectionEvent e) {
         DefaultMutableTreeNode node = (DefaultMutableTreeNode) Globals.mTree.getLastSelectedPathComponent();
@@ -290,22 +361,57 @@ public class Main implements TreeWillExpandListener, TreeSelectionListener, KeyL
         if (node == null) {
             return;
         }
-        try {
-            // This operation can take some time so we set the Cursor to WaitCursor.
-            Globals.mMainForm.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            // Show the text contained by selected document node.
-            Item selectedItem = (Item) node.getUserObject();
-            Globals.mMainForm.textArea.setText(selectedItem.getText());
-            Globals.mMainForm.textArea.moveCaretPosition(0);
 
-            Globals.mMainForm.toolRemove.setEnabled(selectedItem.isRemovable());
-            Globals.mMainForm.menuRemoveNode.setEnabled(selectedItem.isRemovable());
-
-            // Restore cursor.
+        // Only the text of the last selected node is shown. A cancelled loader does not restore the cursor,
+        // so it is restored here, also when the new selection is not an item, e.g. the placeholder.
+        if (mTextLoader != null) {
+            mTextLoader.cancel(false);
+            mTextLoader = null;
             Globals.mMainForm.setCursor(null);
-        } catch (Exception ex) {
-            Globals.mMainForm.textArea.setText("");
         }
+
+        Globals.mMainForm.textArea.setText("");
+        Globals.mMainForm.toolRemove.setEnabled(false);
+        Globals.mMainForm.menuRemoveNode.setEnabled(false);
+        if (!(node.getUserObject() instanceof Item)) {
+            return;
+        }
+
+        // This operation can take some time so we set the Cursor to WaitCursor.
+        Globals.mMainForm.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        final Item selectedItem = (Item) node.getUserObject();
+        mTextLoader = new SwingWorker<String, Void>() {
+            private boolean mIsRemovable;
+
+            protected String doInBackground() throws Exception {
+                synchronized (Globals.mDocumentLock) {
+                    mIsRemovable = selectedItem.isRemovable();
+                }
+                return selectedItem.getText();
+            }
+
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+
+                try {
+                    // Show the text contained by selected document node.
+                    Globals.mMainForm.textArea.setText(get());
+                    Globals.mMainForm.textArea.moveCaretPosition(0);
+
+                    Globals.mMainForm.toolRemove.setEnabled(mIsRemovable);
+                    Globals.mMainForm.menuRemoveNode.setEnabled(mIsRemovable);
+                } catch (Exception ex) {
+                    Globals.mMainForm.textArea.setText("");
+                }
+
+                // Restore cursor.
+                Globals.mMainForm.setCursor(null);
+                mTextLoader = null;
+            }
+        };
+        mTextLoader.execute();
     }
 
     /**
@@ -313,7 +419,7 @@ public class Main implements TreeWillExpandListener, TreeSelectionListener, KeyL
      */
     private void onRemove() {
         DefaultMutableTreeNode node = (DefaultMutableTreeNode) Globals.mTree.getSelectionPath().getLastPathComponent();
-        if (node != null) {
+        if (node != null && node.getUserObject() instanceof Item) {
             try {
                 ((Item) node.getUserObject()).remove();
             } catch (Exception e) {
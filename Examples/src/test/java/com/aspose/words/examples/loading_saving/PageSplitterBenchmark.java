@@ -0,0 +1,81 @@
+package com.aspose.words.examples.loading_saving;
+
+import com.aspose.words.BreakType;
+import com.aspose.words.Document;
+import com.aspose.words.DocumentBuilder;
+
+/**
+ * Compares the time DocumentPageSplitter needs to index a document with and without the incremental
+ * layout mode, on two synthetic documents:
+ * <p>
+ * - Pages which end with page breaks, so no paragraph spans a page. The incremental mode skips the
+ *   second layout pass here.
+ * - Long paragraphs which flow across pages. Both modes lay out the document twice here, so the
+ *   times should be about the same.
+ * <p>
+ * The optional argument is the number of pages of the documents, 200 by default. It is in the test
+ * sources, so it is not shipped with the examples; run it on the test classpath.
+ */
+public class PageSplitterBenchmark {
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int pageCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        System.out.println("Pages ending with page breaks:");
+        run(pageCount, false);
+        System.out.println("Paragraphs spanning pages:");
+        run(pageCount, true);
+    }
+
+    private static void run(int pageCount, boolean isFlowing) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            measure(createDocument(pageCount, isFlowing), false);
+            measure(createDocument(pageCount, isFlowing), true);
+        }
+
+        double defaultMillis = 0;
+        double incrementalMillis = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            defaultMillis += measure(createDocument(pageCount, isFlowing), false);
+            incrementalMillis += measure(createDocument(pageCount, isFlowing), true);
+        }
+
+        System.out.println(String.format("  default layout:     %.1f ms", defaultMillis / ITERATIONS));
+        System.out.println(String.format("  incremental layout: %.1f ms", incrementalMillis / ITERATIONS));
+    }
+
+    /**
+     * Returns the milliseconds needed to create the splitter, which lays out the document and splits its nodes.
+     */
+    private static double measure(Document doc, boolean incrementalLayout) throws Exception {
+        long start = System.nanoTime();
+        new DocumentPageSplitter(doc, incrementalLayout);
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static Document createDocument(int pageCount, boolean isFlowing) throws Exception {
+        DocumentBuilder builder = new DocumentBuilder();
+        if (isFlowing) {
+            // About two pages per paragraph.
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                text.append("word").append(i).append(' ');
+            }
+
+            for (int i = 0; i < pageCount / 2; i++) {
+                builder.writeln(text.toString());
+            }
+        } else {
+            for (int page = 1; page <= pageCount; page++) {
+                for (int i = 1; i <= 20; i++) {
+                    builder.writeln(String.format("Paragraph %d on page %d.", i, page));
+                }
+                builder.insertBreak(BreakType.PAGE_BREAK);
+            }
+        }
+
+        return builder.getDocument();
+    }
+}
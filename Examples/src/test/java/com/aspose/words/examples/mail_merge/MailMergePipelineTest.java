@@ -0,0 +1,131 @@
+package com.aspose.words.examples.mail_merge;
+
+import com.aspose.words.Document;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MailMergePipelineTest {
+    /**
+     * A worker fails while the queue of merged documents is full and the writer is busy.
+     * The pipeline must stop and rethrow the error of the worker instead of hanging.
+     */
+    @Test(timeout = 30000)
+    public void workerFailureWithFullQueueStopsPipeline() throws Exception {
+        final CountDownLatch writerBusy = new CountDownLatch(1);
+        final Exception workerError = new IllegalStateException("Merge failed");
+
+        // One worker, one writer and a queue of two merged documents. The writer blocks on the
+        // first document, the worker fills the queue with the next two and fails on the fourth.
+        MailMergePipeline pipeline = new MailMergePipeline(1, 1, 1) {
+            protected void mergeDocument(Document doc, String[] fieldNames, Object[] values) throws Exception {
+                if ((Integer) values[0] == 4) {
+                    assertTrue(writerBusy.await(10, TimeUnit.SECONDS));
+                    throw workerError;
+                }
+            }
+
+            protected void saveDocument(Document doc, String fileName) throws Exception {
+                writerBusy.countDown();
+                // Blocks until the pipeline interrupts the writer.
+                Thread.sleep(TimeUnit.MINUTES.toMillis(10));
+            }
+        };
+
+        try {
+            pipeline.execute(createResultSet(100), new Document(), "unused {0}.docx");
+            fail("The error of the worker was not rethrown.");
+        } catch (IllegalStateException e) {
+            assertEquals(workerError, e);
+        }
+
+        assertEquals(0, pipeline.getDocumentsSaved());
+    }
+
+    @Test(timeout = 30000)
+    public void allRowsAreSaved() throws Exception {
+        MailMergePipeline pipeline = new MailMergePipeline(2, 2, 3) {
+            protected void mergeDocument(Document doc, String[] fieldNames, Object[] values) {
+            }
+
+            protected void saveDocument(Document doc, String fileName) {
+            }
+        };
+
+        pipeline.execute(createResultSet(50), new Document(), "unused {0}.docx");
+
+        assertEquals(50, pipeline.getRowsRead());
+        assertEquals(50, pipeline.getDocumentsMerged());
+        assertEquals(50, pipeline.getDocumentsSaved());
+    }
+
+    @Test(timeout = 30000)
+    public void fieldNamesAreColumnLabels() throws Exception {
+        final AtomicReference<String> fieldName = new AtomicReference<String>();
+        MailMergePipeline pipeline = new MailMergePipeline(1, 1, 1) {
+            protected void mergeDocument(Document doc, String[] fieldNames, Object[] values) {
+                fieldName.set(fieldNames[0]);
+            }
+
+            protected void saveDocument(Document doc, String fileName) {
+            }
+        };
+
+        pipeline.execute(createResultSet(1), new Document(), "unused {0}.docx");
+
+        assertEquals("Number", fieldName.get());
+    }
+
+    /**
+     * Returns a forward-only result set with a single column holding the 1-based row number.
+     */
+    private static ResultSet createResultSet(final int rowCount) {
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                MailMergePipelineTest.class.getClassLoader(), new Class[]{ResultSetMetaData.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getColumnCount")) {
+                            return 1;
+                        }
+                        // The query aliases the column, e.g. SELECT num AS Number.
+                        if (method.getName().equals("getColumnLabel")) {
+                            return "Number";
+                        }
+                        if (method.getName().equals("getColumnName")) {
+                            return "num";
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        return (ResultSet) Proxy.newProxyInstance(
+                MailMergePipelineTest.class.getClassLoader(), new Class[]{ResultSet.class},
+                new InvocationHandler() {
+                    private int mRow;
+
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("next")) {
+                            return ++mRow <= rowCount;
+                        }
+                        if (method.getName().equals("getObject")) {
+                            return mRow;
+                        }
+                        if (method.getName().equals("getMetaData")) {
+                            return metaData;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,91 @@
+package com.aspose.words.examples.mail_merge;
+
+import com.aspose.words.ref.Ref;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+/**
+ * Compares the per-record field index of XmlMailMergeDataTable with evaluating
+ * an XPath expression for every field. The data source is driven the same way
+ * the mail merge engine drives it: moveNext for every record and getValue for
+ * every field of the template.
+ * <p>
+ * It is in the test sources, so it is not shipped with the examples; run it on the test classpath.
+ */
+public class XmlMailMergeDataTableBenchmark {
+    private static final int RECORD_COUNT = 100000;
+    private static final int FIELD_COUNT = 40;
+
+    public static void main(String[] args) throws Exception {
+        org.w3c.dom.Document xmlData = createData(RECORD_COUNT, FIELD_COUNT);
+
+        String[] fieldNames = new String[FIELD_COUNT];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            fieldNames[i] = "Field" + i;
+        }
+
+        // Warm up both code paths before measuring.
+        run(xmlData, fieldNames, false);
+        run(xmlData, fieldNames, true);
+
+        long xpathTime = run(xmlData, fieldNames, false);
+        long indexTime = run(xmlData, fieldNames, true);
+
+        System.out.println(RECORD_COUNT + " records, " + FIELD_COUNT + " fields per record");
+        System.out.println("XPath per field:  " + xpathTime + " ms");
+        System.out.println("Field index:      " + indexTime + " ms");
+    }
+
+    /**
+     * Reads every field of every record and returns the elapsed time in milliseconds.
+     */
+    private static long run(org.w3c.dom.Document xmlData, String[] fieldNames, boolean useFieldIndex) throws Exception {
+        long start = System.nanoTime();
+
+        XmlMailMergeDataTable table = new XmlMailMergeDataTable(xmlData, "record");
+        table.setUseFieldIndex(useFieldIndex);
+        Ref<Object> value = new Ref<Object>(null);
+        int found = 0;
+        while (table.moveNext()) {
+            for (String fieldName : fieldNames) {
+                if (table.getValue(fieldName, value)) {
+                    found++;
+                }
+            }
+        }
+
+        if (found != RECORD_COUNT * fieldNames.length) {
+            throw new IllegalStateException("Expected every field to be found, found " + found);
+        }
+
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    /**
+     * Creates an XML document with the specified number of records. Half of the fields are
+     * child elements and the other half are attributes of the record element.
+     */
+    private static org.w3c.dom.Document createData(int recordCount, int fieldCount) throws Exception {
+        org.w3c.dom.Document xmlData = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        Element root = xmlData.createElement("records");
+        xmlData.appendChild(root);
+
+        for (int i = 0; i < recordCount; i++) {
+            Element record = xmlData.createElement("record");
+            for (int j = 0; j < fieldCount; j++) {
+                if (j % 2 == 0) {
+                    Element field = xmlData.createElement("Field" + j);
+                    field.setTextContent("Value " + i + "." + j);
+                    record.appendChild(field);
+                } else {
+                    record.setAttribute("Field" + j, "Value " + i + "." + j);
+                }
+            }
+
+            root.appendChild(record);
+        }
+
+        return xmlData;
+    }
+}
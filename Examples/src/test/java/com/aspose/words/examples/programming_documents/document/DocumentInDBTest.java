@@ -0,0 +1,165 @@
+package com.aspose.words.examples.programming_documents.document;
+
+import com.aspose.words.Document;
+import com.aspose.words.DocumentBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Stores documents in an Access database created by UCanAccess and reads them back.
+ */
+public class DocumentInDBTest {
+    private File mTempDir;
+    private Connection mConnection;
+
+    @Before
+    public void setUp() throws Exception {
+        mTempDir = Files.createTempDirectory("DocumentInDB").toFile();
+        mConnection = DriverManager.getConnection("jdbc:ucanaccess://" + new File(mTempDir, "DocDB.accdb").getAbsolutePath()
+                + ";newdatabaseversion=V2010");
+        mConnection.setAutoCommit(false);
+
+        Statement statement = mConnection.createStatement();
+        try {
+            statement.execute("CREATE TABLE Documents (FileName TEXT(255), FileContent OLE)");
+        } finally {
+            statement.close();
+        }
+        mConnection.commit();
+
+        DocumentInDB.setConnection(mConnection);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mConnection.close();
+        for (File file : mTempDir.listFiles()) {
+            file.delete();
+        }
+        mTempDir.delete();
+    }
+
+    @Test
+    public void storedDocumentIsReadBack() throws Exception {
+        Document doc = createDocument("Plain.doc", "Stored through a pipe.");
+
+        DocumentInDB.storeToDatabase(doc, false);
+
+        assertFalse(isCompressed(getStoredBytes("Plain.doc")));
+        assertEquals(doc.getText(), DocumentInDB.readFromDatabase("Plain.doc").getText());
+    }
+
+    @Test
+    public void compressedDocumentIsReadBack() throws Exception {
+        Document doc = createDocument("Compressed.doc", "Stored with GZIP.");
+
+        DocumentInDB.storeToDatabase(doc, true);
+
+        assertTrue(isCompressed(getStoredBytes("Compressed.doc")));
+        assertEquals(doc.getText(), DocumentInDB.readFromDatabase("Compressed.doc").getText());
+    }
+
+    /**
+     * The file name is passed as a parameter, so a quote in it does not break the SQL commands.
+     */
+    @Test
+    public void fileNameWithQuoteIsStoredReadAndDeleted() throws Exception {
+        Document doc = createDocument("Smith's report.doc", "A file name with a quote.");
+
+        DocumentInDB.storeToDatabase(doc, false);
+        assertEquals(doc.getText(), DocumentInDB.readFromDatabase("Smith's report.doc").getText());
+
+        DocumentInDB.deleteFromDatabase("Smith's report.doc");
+        try {
+            DocumentInDB.readFromDatabase("Smith's report.doc");
+            fail("The document was not deleted.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    /**
+     * A driver without the JDBC 4 setter gets the stream as a buffer with its length.
+     */
+    @Test
+    public void streamIsBufferedForDriverWithoutJdbc4Setter() throws Exception {
+        final byte[] content = new byte[200 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{PreparedStatement.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (!method.getName().equals("setBinaryStream")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        if (args.length == 2) {
+                            throw new SQLFeatureNotSupportedException();
+                        }
+
+                        InputStream stream = (InputStream) args[1];
+                        int length = (Integer) args[2];
+                        for (int i = 0; i < length; i++) {
+                            received.write(stream.read());
+                        }
+                        assertEquals(-1, stream.read());
+                        return null;
+                    }
+                });
+
+        DocumentInDB.setBinaryStream(statement, 2, new java.io.ByteArrayInputStream(content));
+
+        assertArrayEquals(content, received.toByteArray());
+    }
+
+    /**
+     * Creates a document and saves it under the specified name, so it has an original file name.
+     */
+    private Document createDocument(String fileName, String text) throws Exception {
+        DocumentBuilder builder = new DocumentBuilder();
+        builder.writeln(text);
+
+        String path = new File(mTempDir, fileName).getPath();
+        builder.getDocument().save(path);
+        return new Document(path);
+    }
+
+    private byte[] getStoredBytes(String fileName) throws Exception {
+        PreparedStatement statement = mConnection.prepareStatement("SELECT FileContent FROM Documents WHERE FileName=?");
+        try {
+            statement.setString(1, fileName);
+            ResultSet resultSet = statement.executeQuery();
+            assertTrue(resultSet.next());
+            return resultSet.getBytes(1);
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static boolean isCompressed(byte[] bytes) {
+        return bytes.length >= 2 && (bytes[0] & 0xff) == 0x1f && (bytes[1] & 0xff) == 0x8b;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2001-2014 Aspose Pty Ltd. All Rights Reserved.
+ *
+ * This file is part of Aspose.Words. The source code in this file
+ * is only intended as a supplement to the documentation, and is provided
+ * "as is", without warranty of any kind, either expressed or implied.
+ */
+package com.aspose.words.examples.viewers_visualizers.document_explorer;
+
+import com.aspose.words.BreakType;
+import com.aspose.words.Document;
+import com.aspose.words.DocumentBuilder;
+import com.aspose.words.Node;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Measures the time until the Document Explorer paints the first rows of the body of a large
+ * synthetic document: once loading one page of child nodes, as the explorer does, and once
+ * loading all child nodes at once, as the explorer did before.
+ * <p>
+ * Runs headless, the tree is painted into an image. The optional argument is the number of
+ * pages of the document, 5000 by default. It is in the test sources, so it is not shipped with
+ * the examples; run it on the test classpath.
+ */
+public class TreeLoadBenchmark {
+    private static final int PARAGRAPHS_PER_PAGE = 40;
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int pageCount = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+
+        Document doc = createDocument(pageCount);
+        System.out.println(String.format("Synthetic document: %d pages, %d paragraphs in the first body.",
+                pageCount, doc.getFirstSection().getBody().getChildNodes().getCount()));
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            measureFirstPaint(doc, Item.PAGE_SIZE);
+            measureFirstPaint(doc, Integer.MAX_VALUE);
+        }
+
+        double pagedMillis = 0;
+        double allMillis = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            pagedMillis += measureFirstPaint(doc, Item.PAGE_SIZE);
+            allMillis += measureFirstPaint(doc, Integer.MAX_VALUE);
+        }
+
+        System.out.println(String.format("Time to first paint, %d child nodes per page: %.1f ms", Item.PAGE_SIZE, pagedMillis / ITERATIONS));
+        System.out.println(String.format("Time to first paint, all child nodes at once: %.1f ms", allMillis / ITERATIONS));
+    }
+
+    /**
+     * Creates a document with a single section and the specified number of pages of paragraphs.
+     */
+    private static Document createDocument(int pageCount) throws Exception {
+        DocumentBuilder builder = new DocumentBuilder();
+        for (int page = 1; page <= pageCount; page++) {
+            for (int i = 1; i <= PARAGRAPHS_PER_PAGE; i++) {
+                builder.writeln(String.format("Paragraph %d on page %d.", i, page));
+            }
+            builder.insertBreak(BreakType.PAGE_BREAK);
+        }
+
+        return builder.getDocument();
+    }
+
+    /**
+     * Returns the milliseconds from creating the tree until the expanded body of the first section is painted.
+     */
+    private static double measureFirstPaint(Document doc, int pageSize) throws Exception {
+        long start = System.nanoTime();
+
+        Item rootItem = Item.createItem(doc);
+        Globals.mRootNode = rootItem.getTreeNode();
+        Globals.mTreeModel = new DefaultTreeModel(Globals.mRootNode);
+        JTree tree = new JTree(Globals.mTreeModel);
+        tree.setLargeModel(true);
+
+        // Expand the document, the first section and its body, the way the user does.
+        Item item = rootItem;
+        for (Node node : new Node[]{doc.getFirstSection(), doc.getFirstSection().getBody()}) {
+            item.addPage(item.loadPage(pageSize));
+            tree.expandPath(new TreePath(item.getTreeNode().getPath()));
+            item = findChild(item, node);
+        }
+        item.addPage(item.loadPage(pageSize));
+        tree.expandPath(new TreePath(item.getTreeNode().getPath()));
+
+        // Paint the rows which fit into a window.
+        Dimension size = tree.getPreferredSize();
+        tree.setSize(size);
+        BufferedImage image = new BufferedImage(400, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setClip(0, 0, image.getWidth(), image.getHeight());
+            tree.paint(graphics);
+        } finally {
+            graphics.dispose();
+        }
+
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    private static Item findChild(Item parent, Node node) {
+        DefaultMutableTreeNode treeNode = parent.getTreeNode();
+        for (int i = 0; i < treeNode.getChildCount(); i++) {
+            Object userObject = ((DefaultMutableTreeNode) treeNode.getChildAt(i)).getUserObject();
+            if (userObject instanceof Item && ((Item) userObject).getNode() == node) {
+                return (Item) userObject;
+            }
+        }
+
+        throw new IllegalStateException("The node is not loaded: " + node);
+    }
+}
@@ -0,0 +1,127 @@
+package com.aspose.words.examples.viewers_visualizers.document_explorer;
+
+import com.aspose.words.Document;
+import com.aspose.words.DocumentBuilder;
+import com.aspose.words.Node;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Expands a node with more child nodes than fit into one page, the way the Document Explorer does, and
+ * paints the tree headless. Reports the time from creating the tree until the first page of child nodes
+ * is painted. TreeLoadBenchmark compares this time with loading all child nodes at once.
+ */
+public class TreeLoadTest {
+    private static final int PARAGRAPH_COUNT = Item.PAGE_SIZE * 5;
+
+    @BeforeClass
+    public static void setUpClass() {
+        System.setProperty("java.awt.headless", "true");
+    }
+
+    @Test(timeout = 60000)
+    public void firstPagePaintsBeforeAllChildNodesAreLoaded() throws Exception {
+        DocumentBuilder builder = new DocumentBuilder();
+        for (int i = 1; i <= PARAGRAPH_COUNT; i++) {
+            builder.writeln("Paragraph " + i);
+        }
+        final Document doc = builder.getDocument();
+
+        final long start = System.nanoTime();
+        final AtomicReference<JTree> tree = new AtomicReference<JTree>();
+        final AtomicReference<Item> bodyItem = new AtomicReference<Item>();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            public void run() {
+                try {
+                    Item rootItem = Item.createItem(doc);
+                    Globals.mRootNode = rootItem.getTreeNode();
+                    Globals.mTreeModel = new DefaultTreeModel(Globals.mRootNode);
+                    tree.set(new JTree(Globals.mTreeModel));
+
+                    // Load the document and the first section, then expand the body on a background thread.
+                    Item item = rootItem;
+                    for (Node node : new Node[]{doc.getFirstSection(), doc.getFirstSection().getBody()}) {
+                        item.addPage(item.loadPage(Item.PAGE_SIZE));
+                        tree.get().expandPath(new TreePath(item.getTreeNode().getPath()));
+                        item = findChild(item, node);
+                    }
+                    bodyItem.set(item);
+                    item.onExpand();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+
+        final DefaultMutableTreeNode bodyNode = bodyItem.get().getTreeNode();
+        final AtomicLong firstPaintNanos = new AtomicLong();
+        final AtomicInteger childCountAtPaint = new AtomicInteger();
+        final AtomicBoolean isPlaceholderAtPaint = new AtomicBoolean();
+        while (childCountAtPaint.get() == 0) {
+            Thread.sleep(10);
+            SwingUtilities.invokeAndWait(new Runnable() {
+                public void run() {
+                    // Wait for the first page, the placeholder is the only child node before it arrives.
+                    if (bodyNode.getChildCount() == 1) {
+                        return;
+                    }
+
+                    tree.get().expandPath(new TreePath(bodyNode.getPath()));
+                    paint(tree.get());
+                    firstPaintNanos.set(System.nanoTime() - start);
+                    childCountAtPaint.set(bodyNode.getChildCount());
+                    isPlaceholderAtPaint.set(Item.isPlaceholder(bodyNode.getLastChild()));
+                }
+            });
+        }
+
+        System.out.println(String.format("Time to first paint: %.1f ms, %d of %d child nodes loaded.",
+                firstPaintNanos.get() / 1e6, childCountAtPaint.get() - 1, doc.getFirstSection().getBody().getChildNodes().getCount()));
+
+        // Only the first page was loaded when the tree was painted, the rest was still behind the placeholder.
+        assertEquals(Item.PAGE_SIZE + 1, childCountAtPaint.get());
+        assertTrue(isPlaceholderAtPaint.get());
+        assertTrue(childCountAtPaint.get() < PARAGRAPH_COUNT);
+    }
+
+    /**
+     * Paints the rows which fit into a window into an image.
+     */
+    private static void paint(JTree tree) {
+        tree.setSize(tree.getPreferredSize());
+        BufferedImage image = new BufferedImage(400, 600, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setClip(0, 0, image.getWidth(), image.getHeight());
+            tree.paint(graphics);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    private static Item findChild(Item parent, Node node) {
+        DefaultMutableTreeNode treeNode = parent.getTreeNode();
+        for (int i = 0; i < treeNode.getChildCount(); i++) {
+            Object userObject = ((DefaultMutableTreeNode) treeNode.getChildAt(i)).getUserObject();
+            if (userObject instanceof Item && ((Item) userObject).getNode() == node) {
+                return (Item) userObject;
+            }
+        }
+
+        throw new IllegalStateException("The node is not loaded: " + node);
+    }
+}
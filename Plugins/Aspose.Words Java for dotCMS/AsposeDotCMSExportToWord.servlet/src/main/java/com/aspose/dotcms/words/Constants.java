@@ -18,4 +18,21 @@ public final class Constants {
 
 	public static final String HTML_TO_WORD_CONVERSION_ERROR_MESSAGE = "Failed to save Webpage content in Word Processing Document";
 	public static final String WORD_FILE_NAME = "WebPageContentInWord.docx";
+	public static final String SERVER_BUSY_MESSAGE = "Too many Word export requests, please try again later";
+
+	// Number of pages converted at the same time.
+	public static final int CONVERSION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+	// Number of requests that may wait for a free conversion thread before new requests are rejected with 503.
+	public static final int CONVERSION_QUEUE_LIMIT = 32;
+	// How long a request waits for its conversion before it is rejected with 503.
+	public static final int CONVERSION_TIMEOUT_SECONDS = 120;
+	// Suggested delay in seconds before a rejected request is retried.
+	public static final int RETRY_AFTER_SECONDS = 5;
+	public static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+	// Directory under java.io.tmpdir where converted documents are cached.
+	public static final String CACHE_DIRECTORY_NAME = "aspose-dotcms-export-to-word";
+	// Size of the converted documents kept in memory and on disk.
+	public static final long MEMORY_CACHE_BYTES = 32L * 1024 * 1024;
+	public static final long DISK_CACHE_BYTES = 512L * 1024 * 1024;
 }
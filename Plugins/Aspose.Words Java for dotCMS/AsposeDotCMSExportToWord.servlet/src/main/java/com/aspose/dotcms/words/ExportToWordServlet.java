@@ -21,34 +21,80 @@ import javax.servlet.http.HttpServletResponse;
 import com.aspose.words.Document;
 import com.aspose.words.SaveFormat;
 import java.io.*;
-import java.net.URL;
+import java.util.concurrent.*;
 
 public class ExportToWordServlet extends HttpServlet {
 
     private static final long serialVersionUID = 42L;
 
+    // Converts pages on a fixed number of threads. When all threads are busy and the queue is full,
+    // new requests are rejected instead of piling up.
+    private final transient ThreadPoolExecutor conversionExecutor = new ThreadPoolExecutor(
+            Constants.CONVERSION_THREADS, Constants.CONVERSION_THREADS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(Constants.CONVERSION_QUEUE_LIMIT));
+
+    // Reuses the converted document while the page has not changed.
+    private final transient PageConversionCache conversionCache = new PageConversionCache(
+            new PageConversionCache.Converter() {
+                public byte[] convert(byte[] pageContent) throws Exception {
+                    return savePageContentInWordProcessingDocument(new ByteArrayInputStream(pageContent)).toByteArray();
+                }
+            },
+            new File(System.getProperty("java.io.tmpdir"), Constants.CACHE_DIRECTORY_NAME),
+            Constants.MEMORY_CACHE_BYTES, Constants.DISK_CACHE_BYTES);
+
     public ExportToWordServlet ( ) {
     }
     
     protected void doGet ( HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) throws ServletException, IOException {
         //Get Web page URL
-        String pageURL = getPageURL(httpServletRequest);
-        
-		try {
-			//Save Web page content in Word Processing document
-			String fileName = savePageContentInWordProcessingDocument(pageURL);
-			//Send Document to Client
-	        sendDocumentToClient(fileName, httpServletResponse);
-		} catch (Exception e) {
-			OutputStream os= httpServletResponse.getOutputStream();
-	        os.write(Constants.HTML_TO_WORD_CONVERSION_ERROR_MESSAGE.getBytes());
-			os.flush();
-		}
+        final String pageURL = getPageURL(httpServletRequest);
+
+        Future<byte[]> conversion;
+        try {
+            conversion = conversionCache.getDocument(pageURL, conversionExecutor);
+        } catch (RejectedExecutionException e) {
+            sendServerBusy(httpServletResponse);
+            return;
+        }
+
+        byte[] document;
+        try {
+            //Save Web page content in Word Processing document, or reuse it if the page has not changed
+            document = conversion.get(Constants.CONVERSION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // The conversion is not cancelled, other requests for the page may share it and its result is cached.
+            sendServerBusy(httpServletResponse);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendServerBusy(httpServletResponse);
+            return;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                // The request joined a conversion of the same page which the executor rejected.
+                sendServerBusy(httpServletResponse);
+                return;
+            }
+
+            OutputStream os= httpServletResponse.getOutputStream();
+            os.write(Constants.HTML_TO_WORD_CONVERSION_ERROR_MESSAGE.getBytes());
+            os.flush();
+            return;
+        }
+
+        //Send Document to Client
+        sendDocumentToClient(document, httpServletResponse);
     }
     
     protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         doGet(request, response);
     }
+
+    public void destroy() {
+        conversionExecutor.shutdownNow();
+        super.destroy();
+    }
     
     public String getPageURL(HttpServletRequest httpServletRequest) {
     	String pageURL = null;
@@ -62,50 +108,36 @@ public class ExportToWordServlet extends HttpServlet {
         return pageURL;
     }
     
-    public String savePageContentInWordProcessingDocument(String pageURL) throws Exception {
-    	String fileName = null;
-    	
-        URL url = new URL(pageURL);
-        InputStream stream = url.openStream();
+    /**
+     * Converts the page content into a DOCX document held in memory. Every request gets its own buffer,
+     * so concurrent conversions do not share any file.
+     */
+    public ByteArrayOutputStream savePageContentInWordProcessingDocument(InputStream pageContent) throws Exception {
         // Load the entire document into memory
-        Document doc = new Document(stream);
+        Document doc = new Document(pageContent);
         // Save the document DOCX file format
-        fileName = Constants.WORD_FILE_NAME;
-        File file = new File(fileName);
-        if(file.exists()) {
-        	file.delete();
-        }
-        doc.save(fileName, SaveFormat.DOCX);
-        stream.close();       
-            
-        return fileName;
+        ByteArrayOutputStream document = new ByteArrayOutputStream();
+        doc.save(document, SaveFormat.DOCX);
+        return document;
     }
     
-    public void sendDocumentToClient(String fileName, HttpServletResponse response) throws ServletException, IOException {
-    	ServletOutputStream stream = null;
-        BufferedInputStream buf = null;
+    public void sendDocumentToClient(byte[] document, HttpServletResponse response) throws ServletException, IOException {
+        response.setContentType("application/msword");
+        response.addHeader("Content-Disposition", "attachment; filename="+ Constants.WORD_FILE_NAME);
+        response.setContentLength(document.length);
+        response.setBufferSize(Constants.COPY_BUFFER_SIZE);
+
+        ServletOutputStream stream = response.getOutputStream();
         try {
-        	
-            stream = response.getOutputStream();
-            File file = new File(fileName);
-            
-            response.setContentType("application/msword");
-            response.addHeader("Content-Disposition", "attachment; filename="+ fileName);
-            response.setContentLength((int) file.length());
-	        
-            FileInputStream input = new FileInputStream(file);
-	        buf = new BufferedInputStream(input);
-	        int readBytes = 0;
-	        while ((readBytes = buf.read()) != -1) {
-	        	stream.write(readBytes);
-	        }
-        } catch (IOException ioe) {
-        	throw new ServletException(ioe.getMessage());
+            // Writes the whole buffer at once, the container sends it in chunks of the response buffer size.
+            stream.write(document);
         } finally {
-          if (stream != null)
-        	  stream.close();
-          if (buf != null)
-            buf.close();
+            stream.close();
         }
     }
+
+    private void sendServerBusy(HttpServletResponse response) throws IOException {
+        response.setHeader("Retry-After", String.valueOf(Constants.RETRY_AFTER_SECONDS));
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, Constants.SERVER_BUSY_MESSAGE);
+    }
 }
\ No newline at end of file
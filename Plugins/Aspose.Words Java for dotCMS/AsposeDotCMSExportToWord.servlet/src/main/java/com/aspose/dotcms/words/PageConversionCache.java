@@ -0,0 +1,337 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 1998-2016 Aspose Pty Ltd.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.aspose.dotcms.words;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Caches the Word documents converted from web pages.
+ * <p>
+ * Every request revalidates the cached page with a conditional GET (If-None-Match / If-Modified-Since).
+ * When the server answers 304, or returns a page whose content hash has not changed, the cached document
+ * is returned without converting the page again. Concurrent requests for the same page share one download
+ * and conversion.
+ * <p>
+ * Converted documents are kept in memory and on disk, both bounded in size with least recently used eviction.
+ * Documents evicted from memory are read back from disk. The index of the cached pages is only kept in memory,
+ * so the documents left on disk by an earlier run are deleted when the cache is created.
+ */
+public class PageConversionCache {
+
+    /**
+     * Converts the downloaded page content into a Word document.
+     */
+    public interface Converter {
+        byte[] convert(byte[] pageContent) throws Exception;
+    }
+
+    private final Converter converter;
+    private final File cacheDir;
+    private final long maxMemoryBytes;
+    private final long maxDiskBytes;
+
+    // All cached entries in least recently used order. Guarded by this.
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    // Conversions in progress, so concurrent requests for the same page wait for one conversion.
+    private final ConcurrentHashMap<String, Conversion> inFlight = new ConcurrentHashMap<String, Conversion>();
+
+    public PageConversionCache(Converter converter, File cacheDir, long maxMemoryBytes, long maxDiskBytes) {
+        this.converter = converter;
+        this.cacheDir = cacheDir;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.maxDiskBytes = maxDiskBytes;
+        cacheDir.mkdirs();
+        deleteCachedFiles();
+    }
+
+    /**
+     * Deletes the documents and temporary files of an earlier run. Their pages and validators are unknown,
+     * so they could neither be revalidated nor counted against the disk limit.
+     */
+    private void deleteCachedFiles() {
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.isFile() && (file.getName().endsWith(".docx") || file.getName().endsWith(".tmp"))) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Returns the Word document for the page, converting it only if the page has changed since it was cached.
+     * <p>
+     * Only the first request for a page runs on the executor. Requests for the same page which arrive while it
+     * is being fetched get the future of that request, so they do not hold a thread of the executor while they
+     * wait. The future is shared, so callers must not cancel it.
+     *
+     * @throws RejectedExecutionException If the executor cannot accept the task. The requests which joined
+     *                                    it in the meantime fail with this exception as well.
+     */
+    public Future<byte[]> getDocument(final String pageURL, Executor executor) {
+        Conversion conversion = new Conversion(pageURL, new Callable<byte[]>() {
+            public byte[] call() throws Exception {
+                return loadDocument(pageURL);
+            }
+        });
+
+        Conversion existingConversion = inFlight.putIfAbsent(pageURL, conversion);
+        if (existingConversion != null) {
+            // Another request is already fetching this page, share its result.
+            return existingConversion;
+        }
+
+        try {
+            executor.execute(conversion);
+        } catch (RejectedExecutionException e) {
+            conversion.reject(e);
+            throw e;
+        }
+
+        return conversion;
+    }
+
+    private byte[] loadDocument(String pageURL) throws Exception {
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(pageURL);
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(pageURL).openConnection();
+        try {
+            if (entry != null) {
+                if (entry.eTag != null) {
+                    connection.setRequestProperty("If-None-Match", entry.eTag);
+                }
+                if (entry.lastModified > 0) {
+                    connection.setIfModifiedSince(entry.lastModified);
+                }
+            }
+
+            if (entry != null && connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                byte[] document = readDocument(entry);
+                if (document != null) {
+                    return document;
+                }
+
+                // The document was evicted after the request was sent, fetch the page again without conditions.
+                synchronized (this) {
+                    if (entries.get(pageURL) == entry) {
+                        entries.remove(pageURL);
+                    }
+                }
+                return loadDocument(pageURL);
+            }
+
+            byte[] pageContent = readFully(connection.getInputStream());
+            byte[] contentHash = MessageDigest.getInstance("SHA-256").digest(pageContent);
+
+            // The server may not support conditional requests, so compare the content as well.
+            if (entry != null && Arrays.equals(entry.contentHash, contentHash)) {
+                byte[] document = readDocument(entry);
+                if (document != null) {
+                    synchronized (this) {
+                        entry.eTag = connection.getHeaderField("ETag");
+                        entry.lastModified = connection.getLastModified();
+                    }
+                    return document;
+                }
+            }
+
+            byte[] document = converter.convert(pageContent);
+            put(pageURL, connection.getHeaderField("ETag"), connection.getLastModified(), contentHash, document);
+            return document;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Returns the cached document from memory or disk, or null if it is no longer cached.
+     */
+    private byte[] readDocument(CacheEntry entry) throws IOException {
+        synchronized (this) {
+            if (entry.document != null) {
+                return entry.document;
+            }
+        }
+
+        byte[] document;
+        try {
+            InputStream input = new FileInputStream(entry.file);
+            try {
+                document = readFully(input);
+            } finally {
+                input.close();
+            }
+        } catch (FileNotFoundException e) {
+            // The entry was evicted from disk in the meantime.
+            return null;
+        }
+
+        synchronized (this) {
+            if (entries.get(entry.pageURL) == entry && entry.document == null) {
+                entry.document = document;
+                memoryBytes += document.length;
+                evictFromMemory();
+            }
+        }
+
+        return document;
+    }
+
+    private void put(String pageURL, String eTag, long lastModified, byte[] contentHash, byte[] document) throws Exception {
+        File file = new File(cacheDir, toHex(MessageDigest.getInstance("SHA-256").digest(pageURL.getBytes("UTF-8"))) + ".docx");
+
+        // Write to a temporary file first, so a reader never sees a partially written document.
+        File tempFile = File.createTempFile("page", ".tmp", cacheDir);
+        OutputStream output = new FileOutputStream(tempFile);
+        try {
+            output.write(document);
+        } finally {
+            output.close();
+        }
+
+        CacheEntry entry = new CacheEntry(pageURL, file);
+        entry.eTag = eTag;
+        entry.lastModified = lastModified;
+        entry.contentHash = contentHash;
+        entry.document = document;
+
+        synchronized (this) {
+            CacheEntry oldEntry = entries.remove(pageURL);
+            if (oldEntry != null) {
+                release(oldEntry);
+            }
+
+            if (!tempFile.renameTo(file)) {
+                file.delete();
+                if (!tempFile.renameTo(file)) {
+                    tempFile.delete();
+                    return;
+                }
+            }
+
+            entries.put(pageURL, entry);
+            memoryBytes += document.length;
+            diskBytes += document.length;
+            evictFromMemory();
+            evictFromDisk();
+        }
+    }
+
+    /**
+     * Drops the in-memory copies of the least recently used documents. They stay on disk.
+     */
+    private void evictFromMemory() {
+        Iterator<CacheEntry> iterator = entries.values().iterator();
+        while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            CacheEntry entry = iterator.next();
+            if (entry.document != null) {
+                memoryBytes -= entry.document.length;
+                entry.document = null;
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used entries entirely.
+     */
+    private void evictFromDisk() {
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && iterator.hasNext()) {
+            CacheEntry entry = iterator.next().getValue();
+            iterator.remove();
+            release(entry);
+        }
+    }
+
+    private void release(CacheEntry entry) {
+        if (entry.document != null) {
+            memoryBytes -= entry.document.length;
+            entry.document = null;
+        }
+
+        diskBytes -= entry.file.length();
+        entry.file.delete();
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[Constants.COPY_BUFFER_SIZE];
+        int readBytes;
+        while ((readBytes = input.read(buffer)) != -1) {
+            output.write(buffer, 0, readBytes);
+        }
+
+        return output.toByteArray();
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * A download and conversion of a page, removed from the in-flight conversions when it completes.
+     */
+    private class Conversion extends FutureTask<byte[]> {
+        private final String pageURL;
+
+        Conversion(String pageURL, Callable<byte[]> callable) {
+            super(callable);
+            this.pageURL = pageURL;
+        }
+
+        void reject(RejectedExecutionException e) {
+            setException(e);
+        }
+
+        protected void done() {
+            inFlight.remove(pageURL, this);
+        }
+    }
+
+    private static class CacheEntry {
+        final String pageURL;
+        final File file;
+        String eTag;
+        long lastModified;
+        byte[] contentHash;
+        // Null when the document was evicted from memory.
+        byte[] document;
+
+        CacheEntry(String pageURL, File file) {
+            this.pageURL = pageURL;
+            this.file = file;
+        }
+    }
+}
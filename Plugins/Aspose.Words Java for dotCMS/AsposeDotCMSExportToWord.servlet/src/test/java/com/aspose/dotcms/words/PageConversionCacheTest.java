@@ -0,0 +1,266 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 1998-2016 Aspose Pty Ltd.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package com.aspose.dotcms.words;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the cache against a local HTTP server which serves the pages from a map.
+ */
+public class PageConversionCacheTest {
+
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final ConcurrentHashMap<String, String> pages = new ConcurrentHashMap<String, String>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+    private final AtomicInteger conversions = new AtomicInteger();
+    private volatile boolean isETagSupported = true;
+    private volatile CountDownLatch conversionGate;
+
+    private HttpServer server;
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new PageHandler());
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        cacheDir = Files.createTempDirectory("page-conversion-cache").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        cacheDir.delete();
+    }
+
+    @Test(timeout = 30000)
+    public void concurrentRequestsShareOneConversion() throws Exception {
+        pages.put("page", "content");
+        conversionGate = new CountDownLatch(1);
+        PageConversionCache cache = createCache(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        final AtomicInteger executions = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        Executor countingExecutor = new Executor() {
+            public void execute(Runnable command) {
+                executions.incrementAndGet();
+                pool.execute(command);
+            }
+        };
+
+        try {
+            List<Future<byte[]>> futures = new ArrayList<Future<byte[]>>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(cache.getDocument(getURL("page"), countingExecutor));
+            }
+
+            // Only the first request was handed to the executor, the others joined it.
+            assertEquals(1, executions.get());
+            for (Future<byte[]> future : futures) {
+                assertSame(futures.get(0), future);
+            }
+
+            conversionGate.countDown();
+            for (Future<byte[]> future : futures) {
+                assertEquals("converted content", new String(future.get(), "UTF-8"));
+            }
+            assertEquals(1, requests.get());
+            assertEquals(1, conversions.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void rejectedConversionIsNotLeftInFlight() throws Exception {
+        pages.put("page", "content");
+        PageConversionCache cache = createCache(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        try {
+            cache.getDocument(getURL("page"), new Executor() {
+                public void execute(Runnable command) {
+                    throw new RejectedExecutionException();
+                }
+            });
+            fail("The rejection was not rethrown.");
+        } catch (RejectedExecutionException e) {
+            // Expected.
+        }
+
+        // The rejected conversion is no longer in flight, so the next request runs.
+        assertEquals("converted content", getDocument(cache, "page"));
+    }
+
+    @Test
+    public void unchangedPageIsRevalidatedWithETag() throws Exception {
+        pages.put("page", "content");
+        PageConversionCache cache = createCache(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        assertEquals("converted content", getDocument(cache, "page"));
+        assertEquals("converted content", getDocument(cache, "page"));
+        assertEquals(1, notModifiedResponses.get());
+        assertEquals(1, conversions.get());
+
+        pages.put("page", "new content");
+        assertEquals("converted new content", getDocument(cache, "page"));
+        assertEquals(2, conversions.get());
+    }
+
+    @Test
+    public void unchangedPageIsRevalidatedWithContentHash() throws Exception {
+        isETagSupported = false;
+        pages.put("page", "content");
+        PageConversionCache cache = createCache(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        assertEquals("converted content", getDocument(cache, "page"));
+        assertEquals("converted content", getDocument(cache, "page"));
+        assertEquals(2, requests.get());
+        assertEquals(0, notModifiedResponses.get());
+        assertEquals(1, conversions.get());
+
+        pages.put("page", "new content");
+        assertEquals("converted new content", getDocument(cache, "page"));
+        assertEquals(2, conversions.get());
+    }
+
+    @Test
+    public void evictedDocumentsAreReadFromDiskOrConvertedAgain() throws Exception {
+        pages.put("page1", "content 1");
+        pages.put("page2", "content 2");
+        pages.put("page3", "content 3");
+        int documentLength = "converted content 1".length();
+
+        // Memory holds one document, the disk two.
+        PageConversionCache cache = createCache(documentLength, 2 * documentLength);
+        getDocument(cache, "page1");
+        getDocument(cache, "page2");
+        getDocument(cache, "page3");
+        assertEquals(3, conversions.get());
+        assertEquals(2, cacheDir.listFiles().length);
+
+        // Page 2 was evicted from memory only, it is read back from disk.
+        assertEquals("converted content 2", getDocument(cache, "page2"));
+        assertEquals(3, conversions.get());
+
+        // Page 1 was evicted entirely, it is fetched without conditions and converted again.
+        int notModified = notModifiedResponses.get();
+        assertEquals("converted content 1", getDocument(cache, "page1"));
+        assertEquals(notModified, notModifiedResponses.get());
+        assertEquals(4, conversions.get());
+        assertEquals(2, cacheDir.listFiles().length);
+    }
+
+    @Test
+    public void filesOfEarlierRunAreDeleted() throws Exception {
+        File document = new File(cacheDir, "0123.docx");
+        File tempFile = new File(cacheDir, "page1.tmp");
+        File otherFile = new File(cacheDir, "readme.txt");
+        for (File file : new File[]{document, tempFile, otherFile}) {
+            assertTrue(file.createNewFile());
+        }
+
+        createCache(Long.MAX_VALUE, Long.MAX_VALUE);
+
+        assertFalse(document.exists());
+        assertFalse(tempFile.exists());
+        assertTrue(otherFile.exists());
+    }
+
+    private PageConversionCache createCache(long maxMemoryBytes, long maxDiskBytes) {
+        return new PageConversionCache(new PageConversionCache.Converter() {
+            public byte[] convert(byte[] pageContent) throws Exception {
+                CountDownLatch gate = conversionGate;
+                if (gate != null) {
+                    gate.await();
+                }
+
+                conversions.incrementAndGet();
+                return ("converted " + new String(pageContent, "UTF-8")).getBytes("UTF-8");
+            }
+        }, cacheDir, maxMemoryBytes, maxDiskBytes);
+    }
+
+    private String getDocument(PageConversionCache cache, String page) throws Exception {
+        return new String(cache.getDocument(getURL(page), DIRECT_EXECUTOR).get(), "UTF-8");
+    }
+
+    private String getURL(String page) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + page;
+    }
+
+    /**
+     * Serves the page named by the path, with an ETag derived from its content when ETags are supported.
+     */
+    private class PageHandler implements HttpHandler {
+        public void handle(HttpExchange exchange) throws IOException {
+            requests.incrementAndGet();
+            String content = pages.get(exchange.getRequestURI().getPath().substring(1));
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+
+            String eTag = "\"" + Integer.toHexString(content.hashCode()) + "\"";
+            if (isETagSupported) {
+                if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModifiedResponses.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+                    return;
+                }
+                exchange.getResponseHeaders().set("ETag", eTag);
+            }
+
+            byte[] body = content.getBytes("UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream output = exchange.getResponseBody();
+            try {
+                output.write(body);
+            } finally {
+                output.close();
+            }
+        }
+    }
+}
@@ -6,11 +6,20 @@ import java.util.Map;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletOutputStream;
 
+import com.aspose.words.Body;
+import com.aspose.words.Cell;
 import com.aspose.words.CellVerticalAlignment;
+import com.aspose.words.Document;
 import com.aspose.words.DocumentBuilder;
 import com.aspose.words.Font;
 import com.aspose.words.HeightRule;
+import com.aspose.words.Paragraph;
 import com.aspose.words.ParagraphAlignment;
+import com.aspose.words.Row;
+import com.aspose.words.Run;
+import com.aspose.words.Section;
+import com.aspose.words.SectionStart;
+import com.aspose.words.Table;
 
 /**
  * 
@@ -18,6 +27,16 @@ import com.aspose.words.ParagraphAlignment;
  *
  */
 public class AsposeAPIHelper {
+	/**
+	 * Number of books written to one table before a new section is started.
+	 * Smaller tables keep the layout of very long lists fast.
+	 */
+	public static final int DEFAULT_ROWS_PER_SECTION = 5000;
+
+	// Keys of the book attributes in the order of the table columns.
+	private static final String[] COLUMNS = { "BookId", "BookName",
+			"AuthorName", "BookCost" };
+
 	/**
 	 * Creates word document from list of book provided from grid. 
 	 * 
@@ -28,102 +47,212 @@ public class AsposeAPIHelper {
 	 */
 	public static void createAsposeWordDoc(ServletOutputStream out,
 			List<Map> books, ServletContext context) throws Exception {
+		createAsposeWordDoc(out, books, context, DEFAULT_ROWS_PER_SECTION);
+	}
 
-		try {
+	/**
+	 * Creates word document from list of book provided from grid, starting a
+	 * new section with a new table after every rowsPerSection books.
+	 * 
+	 * @param  out the current scope OutputStream.
+	 * @param  books books list as map containing attributes.
+	 * @param  context the App ServletContext
+	 * @param  rowsPerSection maximum number of books in one table.
+	 * @see    com.aspose.words.Document
+	 */
+	public static void createAsposeWordDoc(ServletOutputStream out,
+			List<Map> books, ServletContext context, int rowsPerSection)
+			throws Exception {
 
-			com.aspose.words.Document doc = new com.aspose.words.Document();
+		try {
 
-			// DocumentBuilder provides members to easily add content to a
-			// document.
-			DocumentBuilder builder = new DocumentBuilder(doc);
+			Document doc = buildDocument(books, rowsPerSection);
 
-			Font font = builder.getFont();
+			// Save the document
 
-			font.setSize(16);
+			doc.save(out, com.aspose.words.SaveFormat.DOC);
 
-			font.setColor(java.awt.Color.BLUE);
+		} catch (Exception e) {
+			throw new Exception(
+					"Aspose: Unable to export to ms word format.. some error occured",
+					e);
 
-			font.setName("Arial");
+		}
+	}
 
-			builder.insertParagraph();
-			// Write a new paragraph in the document with the text
+	/**
+	 * Builds the books document. The formatting of a book row is set only once
+	 * on a prototype row, which is then cloned for every book and filled with
+	 * its values directly in the document model.
+	 */
+	static Document buildDocument(List<Map> books, int rowsPerSection)
+			throws Exception {
+		if (rowsPerSection < 1) {
+			throw new IllegalArgumentException(
+					"rowsPerSection must be positive");
+		}
 
-			builder.insertParagraph();
-			builder.writeln("Books List");
-			builder.insertParagraph();
-			// Save the document in DOCX format. The format to save as is
-			// inferred from the extension of the file name.
-			// Aspose.Words supports saving any document in many more formats.
+		Document doc = new Document();
+		DocumentBuilder builder = new DocumentBuilder(doc);
+		writeTitle(builder);
+		writeHeaderRow(builder);
 
-			builder.startTable();
+		// Set features for the book rows and cells once, on the prototype row.
+		setBodyRowFormat(builder);
+		for (int i = 0; i < COLUMNS.length; i++) {
 			builder.insertCell();
+			builder.write(" ");
+		}
+		Row prototypeRow = builder.endRow();
+		Table table = builder.endTable();
+		builder.insertParagraph();
+		builder.insertParagraph();
+
+		prototypeRow.remove();
+		// A table with the header row only, cloned for every further section.
+		Table emptyTable = (Table) table.deepClone(true);
+
+		int rowsInTable = 0;
+		for (Map book : books) {
+			if (rowsInTable == rowsPerSection) {
+				table = appendSection(doc, emptyTable);
+				rowsInTable = 0;
+			}
+
+			Row row = (Row) prototypeRow.deepClone(true);
+			Cell cell = row.getFirstCell();
+			for (int i = 0; i < COLUMNS.length; i++) {
+				Run run = (Run) cell.getFirstParagraph().getFirstChild();
+				run.setText(book.get(COLUMNS[i]).toString());
+				cell = (Cell) cell.getNextSibling();
+			}
+
+			table.appendChild(row);
+			rowsInTable++;
+		}
 
-			// Set height and define the height rule for the header row.
-			builder.getRowFormat().setHeight(40.0);
-			builder.getRowFormat().setHeightRule(HeightRule.AT_LEAST);
-
-			// Some special features for the header row.
-			builder.getCellFormat()
-					.getShading()
-					.setBackgroundPatternColor(
-							new java.awt.Color(198, 217, 241));
-			builder.getParagraphFormat()
-					.setAlignment(ParagraphAlignment.CENTER);
-			builder.getFont().setSize(16);
-			builder.getFont().setName("Arial");
-			builder.getFont().setBold(true);
-
-			builder.getCellFormat().setWidth(100.0);
-			builder.write("Book Id");
+		return doc;
+	}
+
+	/**
+	 * Appends a continuous section with the same page setup as the last one,
+	 * containing a copy of the table and returns the table.
+	 */
+	private static Table appendSection(Document doc, Table emptyTable) {
+		Section section = (Section) doc.getLastSection().deepClone(false);
+		section.getPageSetup().setSectionStart(SectionStart.CONTINUOUS);
+		Body body = new Body(doc);
+		section.appendChild(body);
+
+		Table table = (Table) emptyTable.deepClone(true);
+		body.appendChild(table);
+		// A table cannot be the last node of a story.
+		body.appendChild(new Paragraph(doc));
+
+		doc.appendChild(section);
+		return table;
+	}
+
+	/**
+	 * Builds the books document cell by cell through DocumentBuilder. This was
+	 * the original export, it is kept to compare with buildDocument in
+	 * AsposeAPIHelperBenchmark, which is in the test sources.
+	 */
+	static Document buildDocumentWithBuilder(List<Map> books)
+			throws Exception {
+		Document doc = new Document();
+		DocumentBuilder builder = new DocumentBuilder(doc);
+		writeTitle(builder);
+		writeHeaderRow(builder);
+		setBodyRowFormat(builder);
+
+		for (Map book : books) {
+			String bookId = book.get("BookId").toString();
+			String bookName = book.get("BookName").toString();
+			String bookAuthorName = book.get("AuthorName").toString();
+			String bookCost = book.get("BookCost").toString();
 			builder.insertCell();
-			builder.write("Book Name");
+			// Reset font formatting.
+			builder.getFont().setSize(12);
+			builder.getFont().setBold(false);
+			builder.write(bookId);
 			builder.insertCell();
-			builder.write("AuthorName");
+			builder.write(bookName);
 			builder.insertCell();
-			builder.write("Book Cost");
+			builder.write(bookAuthorName);
+			builder.insertCell();
+			builder.write(bookCost);
 			builder.endRow();
-			// Set features for the other rows and cells.
-			builder.getCellFormat().getShading()
-					.setBackgroundPatternColor(java.awt.Color.WHITE);
-			builder.getCellFormat().setWidth(100.0);
-			builder.getCellFormat().setVerticalAlignment(
-					CellVerticalAlignment.CENTER);
-
-			// Reset height and define a different height rule for table body
-			builder.getRowFormat().setHeight(30.0);
-			builder.getRowFormat().setHeightRule(HeightRule.AUTO);
-
-			for (Map book : books) {
-				String bookId = book.get("BookId").toString();
-				String bookName = book.get("BookName").toString();
-				String bookAuthorName = book.get("AuthorName").toString();
-				String bookCost = book.get("BookCost").toString();
-				builder.insertCell();
-				// Reset font formatting.
-				builder.getFont().setSize(12);
-				builder.getFont().setBold(false);
-				builder.write(bookId);
-				builder.insertCell();
-				builder.write(bookName);
-				builder.insertCell();
-				builder.write(bookAuthorName);
-				builder.insertCell();
-				builder.write(bookCost);
-				builder.endRow();
-			}
-			builder.endTable();
-			builder.insertParagraph();
-			builder.insertParagraph();
+		}
+		builder.endTable();
+		builder.insertParagraph();
+		builder.insertParagraph();
 
-			// Save the document
+		return doc;
+	}
 
-			doc.save(out, com.aspose.words.SaveFormat.DOC);
+	private static void writeTitle(DocumentBuilder builder) {
+		// DocumentBuilder provides members to easily add content to a
+		// document.
+		Font font = builder.getFont();
 
-		} catch (Exception e) {
-			throw new Exception(
-					"Aspose: Unable to export to ms word format.. some error occured",
-					e);
+		font.setSize(16);
 
-		}
+		font.setColor(java.awt.Color.BLUE);
+
+		font.setName("Arial");
+
+		builder.insertParagraph();
+		// Write a new paragraph in the document with the text
+
+		builder.insertParagraph();
+		builder.writeln("Books List");
+		builder.insertParagraph();
+	}
+
+	private static void writeHeaderRow(DocumentBuilder builder) {
+		builder.startTable();
+		builder.insertCell();
+
+		// Set height and define the height rule for the header row.
+		builder.getRowFormat().setHeight(40.0);
+		builder.getRowFormat().setHeightRule(HeightRule.AT_LEAST);
+
+		// Some special features for the header row.
+		builder.getCellFormat()
+				.getShading()
+				.setBackgroundPatternColor(
+						new java.awt.Color(198, 217, 241));
+		builder.getParagraphFormat()
+				.setAlignment(ParagraphAlignment.CENTER);
+		builder.getFont().setSize(16);
+		builder.getFont().setName("Arial");
+		builder.getFont().setBold(true);
+
+		builder.getCellFormat().setWidth(100.0);
+		builder.write("Book Id");
+		builder.insertCell();
+		builder.write("Book Name");
+		builder.insertCell();
+		builder.write("AuthorName");
+		builder.insertCell();
+		builder.write("Book Cost");
+		builder.endRow();
+	}
+
+	private static void setBodyRowFormat(DocumentBuilder builder) {
+		// Set features for the other rows and cells.
+		builder.getCellFormat().getShading()
+				.setBackgroundPatternColor(java.awt.Color.WHITE);
+		builder.getCellFormat().setWidth(100.0);
+		builder.getCellFormat().setVerticalAlignment(
+				CellVerticalAlignment.CENTER);
+
+		// Reset height and define a different height rule for table body
+		builder.getRowFormat().setHeight(30.0);
+		builder.getRowFormat().setHeightRule(HeightRule.AUTO);
+
+		builder.getFont().setSize(12);
+		builder.getFont().setBold(false);
 	}
 }
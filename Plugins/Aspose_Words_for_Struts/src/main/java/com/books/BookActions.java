@@ -80,7 +80,8 @@ public class BookActions extends DispatchAction {
 	}
 
 	/**
-	 * Returns word file that can then be downloaded locally. 
+	 * Returns word file that can then be downloaded locally. The optional
+	 * authorName or bookName request parameter exports only the matching books.
 	 * @see         AsposeAPIHelper
 	 */
 	public ActionForward ExportToWord(ActionMapping mapping, ActionForm form,
@@ -89,18 +90,26 @@ public class BookActions extends DispatchAction {
 
 		Books b = Books.getInstance();
 
-		List<Map> books = b.getBookList();
+		// A snapshot of the books, so the export does not block other requests changing them.
+		List<Map> books;
+		String authorName = request.getParameter("authorName");
+		String bookName = request.getParameter("bookName");
+		if (authorName != null && authorName.length() > 0) {
+			books = b.getBookListByAuthor(authorName);
+		} else if (bookName != null && bookName.length() > 0) {
+			books = b.getBookListByName(bookName);
+		} else {
+			books = b.getBookList();
+		}
 		response.setContentType("application/msword");
 		response.setHeader("Content-Disposition",
 				"attachment;filename=AsposeExportBooksList.doc");
-		for (Map book : books) {
-			try {
-				AsposeAPIHelper.createAsposeWordDoc(response.getOutputStream(),
-						books, request.getServletContext());
-			} catch (Exception e) {
-				e.printStackTrace();
-
-			}
+		// The document contains all exported books, so it is created only once.
+		try {
+			AsposeAPIHelper.createAsposeWordDoc(response.getOutputStream(),
+					books, request.getServletContext());
+		} catch (Exception e) {
+			e.printStackTrace();
 
 		}
 
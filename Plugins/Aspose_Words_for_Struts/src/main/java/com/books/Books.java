@@ -2,74 +2,204 @@ package com.books;
 
 import java.util.Map;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Locale;
 import java.util.Set;
-
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe store of the app data. Book ids are generated atomically and
+ * the books are indexed by author and by name.
+ * 
+ * Stored books are immutable, an update replaces the book. Readers therefore
+ * only hold the read lock while they copy references to the books, and a
+ * Word export built from such a snapshot never blocks writers.
+ */
 class Books {
 
-	int bookIdCount = 1000;
-	Map<Integer, StoreBook> bookMap = new HashMap<Integer, StoreBook>();
-	private static Books books = null;
+	private final AtomicInteger bookIdCount = new AtomicInteger(1000);
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	// Books in the order they were stored. Guarded by lock.
+	private final Map<Integer, StoreBook> bookMap = new LinkedHashMap<Integer, StoreBook>();
+	// Ids of the books by lower case author and book name. Guarded by lock.
+	private final Map<String, Set<Integer>> booksByAuthor = new HashMap<String, Set<Integer>>();
+	private final Map<String, Set<Integer>> booksByName = new HashMap<String, Set<Integer>>();
 
 	private Books() {
+		storeBook("Mastering Java", "John Zakowsi", 200);
+		storeBook(
+				"Struts in Action",
+				"Cedric Dumoulin, David Winterfeldt, George Franciscus, and Ted Husted",
+				500);
 	}
 
-	public static Books getInstance() {
-		if (books == null) {
-			books = new Books();
-			books.storeBook("Mastering Java", "John Zakowsi", 200);
-			books.storeBook(
-					"Struts in Action",
-					"Cedric Dumoulin, David Winterfeldt, George Franciscus, and Ted Husted",
-					500);
+	// The JVM initializes the holder class once, on the first call of getInstance.
+	private static class Holder {
+		static final Books books = new Books();
+	}
 
-		}
-		return books;
+	public static Books getInstance() {
+		return Holder.books;
 	}
 
 	public void storeBook(String bookName, String authorName, int bookCost) {
-		StoreBook sb = new StoreBook();
-		bookIdCount++;
-		sb.addBook(bookIdCount, bookName, authorName, bookCost);
-		bookMap.put(bookIdCount, sb);
+		StoreBook sb = new StoreBook(bookIdCount.incrementAndGet(), bookName,
+				authorName, bookCost);
+		lock.writeLock().lock();
+		try {
+			bookMap.put(sb.bookId, sb);
+			addToIndexes(sb);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	public void updateBook(int bookId, String bookName, String authorName,
 			int bookCost) {
-		StoreBook sb = bookMap.get(bookId);
-		sb.updateBook(bookName, authorName, bookCost);
+		lock.writeLock().lock();
+		try {
+			StoreBook oldBook = bookMap.get(bookId);
+			if (oldBook == null) {
+				return;
+			}
+
+			StoreBook sb = new StoreBook(bookId, bookName, authorName, bookCost);
+			bookMap.put(bookId, sb);
+			removeFromIndexes(oldBook);
+			addToIndexes(sb);
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
 	public Map searchBook(int bookId) {
-		return bookMap.get(bookId).getBooks();
+		StoreBook sb;
+		lock.readLock().lock();
+		try {
+			sb = bookMap.get(bookId);
+		} finally {
+			lock.readLock().unlock();
+		}
+		return sb != null ? sb.getBooks() : null;
 	}
 
 	public void deleteBook(int bookId) {
-		bookMap.remove(bookId);
+		lock.writeLock().lock();
+		try {
+			StoreBook sb = bookMap.remove(bookId);
+			if (sb != null) {
+				removeFromIndexes(sb);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
 	}
 
-	// Inner Class used to persist the app data ie) book details.
-	class StoreBook {
+	/**
+	 * Returns all books as they were at the time of the call.
+	 */
+	public List getBookList() {
+		List<StoreBook> snapshot;
+		lock.readLock().lock();
+		try {
+			snapshot = new ArrayList<StoreBook>(bookMap.values());
+		} finally {
+			lock.readLock().unlock();
+		}
+		return toBookList(snapshot);
+	}
+
+	/**
+	 * Returns the books of the author, ignoring case.
+	 */
+	public List getBookListByAuthor(String authorName) {
+		return getBookList(booksByAuthor, authorName);
+	}
 
-		private String bookName;
-		private String authorName;
-		private int bookCost;
-		private int bookId;
+	/**
+	 * Returns the books with the name, ignoring case.
+	 */
+	public List getBookListByName(String bookName) {
+		return getBookList(booksByName, bookName);
+	}
 
-		StoreBook() {
+	private List getBookList(Map<String, Set<Integer>> index, String key) {
+		List<StoreBook> snapshot = new ArrayList<StoreBook>();
+		lock.readLock().lock();
+		try {
+			Set<Integer> bookIds = index.get(toIndexKey(key));
+			if (bookIds != null) {
+				for (Integer bookId : bookIds) {
+					snapshot.add(bookMap.get(bookId));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
 		}
+		return toBookList(snapshot);
+	}
 
-		public void addBook(int bookId, String bookName, String authorName,
-				int bookCost) {
-			this.bookId = bookId;
-			this.bookName = bookName;
-			this.authorName = authorName;
-			this.bookCost = bookCost;
+	private static List toBookList(List<StoreBook> snapshot) {
+		List booksList = new ArrayList(snapshot.size());
+		for (StoreBook sb : snapshot) {
+			booksList.add(sb.getBooks());
+		}
+		return booksList;
+	}
+
+	private void addToIndexes(StoreBook sb) {
+		addToIndex(booksByAuthor, sb.authorName, sb.bookId);
+		addToIndex(booksByName, sb.bookName, sb.bookId);
+	}
+
+	private void removeFromIndexes(StoreBook sb) {
+		removeFromIndex(booksByAuthor, sb.authorName, sb.bookId);
+		removeFromIndex(booksByName, sb.bookName, sb.bookId);
+	}
+
+	private static void addToIndex(Map<String, Set<Integer>> index,
+			String key, int bookId) {
+		String indexKey = toIndexKey(key);
+		Set<Integer> bookIds = index.get(indexKey);
+		if (bookIds == null) {
+			// Sorted, so filtered lists keep the order in which books were stored.
+			bookIds = new TreeSet<Integer>();
+			index.put(indexKey, bookIds);
 		}
+		bookIds.add(bookId);
+	}
+
+	private static void removeFromIndex(Map<String, Set<Integer>> index,
+			String key, int bookId) {
+		String indexKey = toIndexKey(key);
+		Set<Integer> bookIds = index.get(indexKey);
+		if (bookIds != null) {
+			bookIds.remove(bookId);
+			if (bookIds.isEmpty()) {
+				index.remove(indexKey);
+			}
+		}
+	}
 
-		public void updateBook(String bookName, String authorName, int bookCost) {
+	private static String toIndexKey(String key) {
+		return key == null ? "" : key.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// Inner Class used to persist the app data ie) book details.
+	static class StoreBook {
+
+		private final String bookName;
+		private final String authorName;
+		private final int bookCost;
+		private final int bookId;
+
+		StoreBook(int bookId, String bookName, String authorName, int bookCost) {
+			this.bookId = bookId;
 			this.bookName = bookName;
 			this.authorName = authorName;
 			this.bookCost = bookCost;
@@ -84,14 +214,4 @@ class Books {
 			return books;
 		}
 	}
-
-	public List getBookList() {
-		List booksList = new ArrayList();
-		Set s = bookMap.keySet();
-		Iterator itr = s.iterator();
-		while (itr.hasNext()) {
-			booksList.add(bookMap.get((Integer) itr.next()).getBooks());
-		}
-		return booksList;
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+package com.books;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.aspose.words.Document;
+import com.aspose.words.SaveFormat;
+
+/**
+ * Compares the rows per second of the prototype row export with the original
+ * export which builds every cell through DocumentBuilder. The time includes
+ * saving the document in DOC format, the same as the ExportToWord action.
+ * 
+ * It is in the test sources, so it is not packaged into the WAR. Run it from
+ * the project directory after mvn test-compile:
+ * 
+ * mvn exec:java -Dexec.mainClass=com.books.AsposeAPIHelperBenchmark
+ * -Dexec.classpathScope=test [-Dexec.args=rowCount]
+ */
+public class AsposeAPIHelperBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		List<Map> books = createBooks(rowCount);
+
+		// Warm up both code paths before measuring.
+		List<Map> warmUpBooks = createBooks(1000);
+		run(warmUpBooks, false);
+		run(warmUpBooks, true);
+
+		long builderTime = run(books, false);
+		long prototypeTime = run(books, true);
+
+		System.out.println(rowCount + " rows");
+		System.out.println("DocumentBuilder per cell: " + builderTime
+				+ " ms, " + rowsPerSecond(rowCount, builderTime) + " rows/s");
+		System.out.println("Prototype row clone:      " + prototypeTime
+				+ " ms, " + rowsPerSecond(rowCount, prototypeTime) + " rows/s");
+	}
+
+	/**
+	 * Builds and saves the document and returns the elapsed time in
+	 * milliseconds.
+	 */
+	private static long run(List<Map> books, boolean usePrototypeRow)
+			throws Exception {
+		long start = System.nanoTime();
+
+		Document doc = usePrototypeRow ? AsposeAPIHelper.buildDocument(books,
+				AsposeAPIHelper.DEFAULT_ROWS_PER_SECTION) : AsposeAPIHelper
+				.buildDocumentWithBuilder(books);
+		doc.save(new ByteArrayOutputStream(), SaveFormat.DOC);
+
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	private static long rowsPerSecond(int rowCount, long millis) {
+		return millis > 0 ? rowCount * 1000L / millis : 0;
+	}
+
+	private static List<Map> createBooks(int count) {
+		List<Map> books = new ArrayList<Map>(count);
+		for (int i = 0; i < count; i++) {
+			Map book = new HashMap();
+			book.put("BookId", 1000 + i);
+			book.put("BookName", "Book " + i);
+			book.put("AuthorName", "Author " + (i % 100));
+			book.put("BookCost", 100 + i % 500);
+			books.add(book);
+		}
+		return books;
+	}
+}